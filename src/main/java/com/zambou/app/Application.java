@@ -2,18 +2,24 @@ package com.zambou.app;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
 import com.vaadin.flow.theme.Theme;
+import com.zambou.app.service.ExamCatalog;
 import com.zambou.app.service.ICSDownloadServlet;
+import com.zambou.app.storage.UserStorageManager;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * Einstiegspunkt der Klausurplan-Webanwendung.
  * <p>
- * Diese Klasse bootet die Spring Boot-Anwendung, konfiguriert das Vaadin-Theme
- * und registriert ein benutzerdefiniertes Servlet zur Bereitstellung von ICS-Dateien.
+ * Diese Klasse bootet die Spring Boot-Anwendung, konfiguriert das Vaadin-Theme,
+ * stellt den Zeitgeber für verzögerte Aktualisierungen der Oberfläche bereit und registriert ein benutzerdefiniertes Servlet zur Bereitstellung von ICS-Dateien.
  * 
  * @author Yvan Zambou
  * @version 1.0
@@ -36,15 +42,53 @@ public class Application implements AppShellConfigurator {
         SpringApplication.run(Application.class, args);
     }
 	
+	/**
+     * Stellt den gemeinsamen Zeitgeber für verzögerte Aktualisierungen der Oberfläche bereit,
+     * z. B. für die Filterauswertung in {@link com.zambou.app.component.FilterForm}.
+     * <p>
+     * Die Aufgaben sind kurz und übergeben ihre Arbeit per {@code UI.access} an die Sitzung,
+     * daher genügt ein Thread. Er wird mit dem Anwendungskontext beendet.
+     *
+     * @return der Zeitgeber
+     */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(1);
+		scheduler.setThreadNamePrefix("ui-debounce-");
+		scheduler.setDaemon(true);
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
 	/**
      * Registriert das {@link ICSDownloadServlet}, das ICS-Kalenderdateien für Nutzer bereitstellt.
      * <p>
-     * Das Servlet wird unter dem Pfad {@code /ics-export/*} verfügbar gemacht.
+     * Das Servlet wird unter dem Pfad {@code /ics-export/*} verfügbar gemacht und liest
+     * die Prüfungsdaten aus dem gemeinsamen {@link ExamCatalog} und die Nutzer aus dem
+     * gemeinsamen {@link UserStorageManager}. Es arbeitet asynchron auf virtuellen Threads mit
+     * einer konfigurierbaren Obergrenze gleichzeitiger und wartender Abrufe.
      *
+     * @param catalog        der gemeinsame Klausurkatalog
+     * @param storageManager der gemeinsame Nutzerspeicher
+     * @param meterRegistry  Registrierung für die Anfragezähler des Servlets
+     * @param maxConcurrent  Anzahl gleichzeitig bearbeiteter ICS-Abrufe
+     * @param maxQueued      Anzahl zusätzlich wartender ICS-Abrufe
+     * @param retryAfter     empfohlene Wartezeit abgewiesener Clients in Sekunden
      * @return die Servlet-Registrierung für das ICS-Download-Servlet
      */
 	@Bean
-    public ServletRegistrationBean<ICSDownloadServlet> icsDownloadServlet() {
-        return new ServletRegistrationBean<>(new ICSDownloadServlet(), "/ics-export/*");
+    public ServletRegistrationBean<ICSDownloadServlet> icsDownloadServlet(ExamCatalog catalog,
+    		UserStorageManager storageManager, MeterRegistry meterRegistry,
+    		@Value("${klausurplan.ics.max-concurrent:32}") int maxConcurrent,
+    		@Value("${klausurplan.ics.max-queued:256}") int maxQueued,
+    		@Value("${klausurplan.ics.retry-after-seconds:30}") int retryAfter,
+    		@Value("${klausurplan.ics.timeout-seconds:30}") int timeoutSeconds) {
+        ServletRegistrationBean<ICSDownloadServlet> registration = new ServletRegistrationBean<>(
+        		new ICSDownloadServlet(catalog, storageManager, meterRegistry, maxConcurrent, maxQueued, retryAfter,
+        				timeoutSeconds * 1000L),
+        		"/ics-export/*");
+        registration.setAsyncSupported(true);
+        return registration;
     }
 }
\ No newline at end of file
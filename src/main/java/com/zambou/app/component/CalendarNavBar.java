@@ -14,7 +14,6 @@ import org.vaadin.stefan.fullcalendar.FullCalendar;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Locale;
 import java.util.stream.Stream;
 
@@ -55,10 +54,10 @@ public class CalendarNavBar extends HorizontalLayout {
      * Erstellt eine neue Navigationsleiste für den übergebenen Kalender.
      *
      * @param calendar die {@link FullCalendar}-Instanz, die gesteuert werden soll
-     * @param csvPath Pfad zur CSV-Datei mit den Prüfungsterminen
+     * @param db gemeinsamer Schnappschuss des Klausurkatalogs
      */
-    public CalendarNavBar(FullCalendar calendar, String csvPath) {
-    	db = new ExamDB(csvPath);
+    public CalendarNavBar(FullCalendar calendar, ExamDB db) {
+    	this.db = db;
     	
     	// Automatische Ansichtsauswahl basierend auf Bildschirmbreite
         UI.getCurrent().getPage().retrieveExtendedClientDetails(details -> {
@@ -122,15 +121,14 @@ public class CalendarNavBar extends HorizontalLayout {
         setJustifyContentMode(JustifyContentMode.BETWEEN);
         add(left, titleLabel, right);
         
-        // Gültiger Datumsbereich aus CSV-Datei
-        List<LocalDate> validRange = db.getSortedDatesAsLocalDate();
+        // Gültiger Datumsbereich aus dem Klausurkatalog
+        LocalDate startDate = db.firstDate();
+        LocalDate endDate = db.lastDate();
         
         // Listener zur Aktualisierung der Titelanzeige und Button-Zustände
         calendar.addDatesRenderedListener(event -> {
             titleLabel.setText(getFormatter(currentView).format(event.getIntervalStart()));
             
-            LocalDate startDate = validRange.getFirst();
-            LocalDate endDate = validRange.getLast();
             LocalDate todayDate = LocalDate.now();
             LocalDate intervalStart = event.getIntervalStart();
             LocalDate intervalEnd = event.getIntervalEnd();
@@ -3,8 +3,6 @@ package com.zambou.app.component;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.vaadin.flow.component.Text;
@@ -151,7 +149,7 @@ public class ExportButton extends HorizontalLayout {
                 return;
             }
 
-            StreamResource resource = ICSExport.exportToIcs(toExport);
+            StreamResource resource = ICSExport.exportToIcs(db, toExport);
             resource.setContentType("text/calendar; charset=utf-8");
 
             StreamRegistration registration = VaadinSession.getCurrent().getResourceRegistry().registerResource(resource);
@@ -241,11 +239,10 @@ public class ExportButton extends HorizontalLayout {
      * @return Liste der ausgewählten {@link Exam}-Objekte
      */
     private List<Exam> getSelectedExams(ExamDB db) {
-        Set<Integer> ids = UserSessionService.getUser().getIds();
-        return ids.stream()
-                  .map(db::getExamById)
-                  .filter(Objects::nonNull)
-                  .collect(Collectors.toList());
+        int[] ids = UserSessionService.getUser().getIds().stream()
+                  .mapToInt(Integer::intValue)
+                  .toArray();
+        return db.getExamsByIds(ids);
     }
     
     /**
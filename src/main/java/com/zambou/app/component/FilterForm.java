@@ -1,22 +1,25 @@
 package com.zambou.app.component;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.FlexLayout;
 import com.vaadin.flow.component.orderedlayout.FlexLayout.FlexWrap;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
-import com.zambou.app.model.Event;
+import com.zambou.app.model.Exam;
 import com.zambou.app.service.CalendarService;
 import com.zambou.app.service.ExamDB;
+import com.zambou.app.service.Facet;
+import com.zambou.app.service.FacetCounts;
 
-import org.vaadin.stefan.fullcalendar.Entry;
+import org.springframework.scheduling.TaskScheduler;
 import org.vaadin.stefan.fullcalendar.FullCalendar;
-import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Set;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Stream;
 
 /**
@@ -24,7 +27,9 @@ import java.util.stream.Stream;
  * Klausurtermine im {@link FullCalendar} nach verschiedenen Kriterien gefiltert werden können.
  *
  * <p>Filterbar sind Studierendengruppen, Dozenten, Räume und Klausurnamen.
- * Die Trefferanzahl wird dynamisch angezeigt und der Kalender aktualisiert.</p>
+ * Die Trefferanzahl wird dynamisch angezeigt und der Kalender aktualisiert.
+ * Jedes Auswahlfeld zeigt nur die Werte, die mit der übrigen Auswahl vereinbar sind,
+ * jeweils mit der Anzahl der Treffer, z.&nbsp;B. {@code "I4 (12)"}.</p>
  * 
  * @author Yvan Zambou
  * @version 1.0
@@ -33,6 +38,12 @@ public class FilterForm extends VerticalLayout {
 
     private static final long serialVersionUID = 1L;
 
+    /** Wartezeit, innerhalb der Filteränderungen zu einer Auswertung zusammengefasst werden */
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    /** Gemeinsamer Zeitgeber für verzögerte Filterauswertungen aller Ansichten */
+    private final transient TaskScheduler scheduler;
+
     /** Anzeige der Anzahl gefilterter Klausuren */
     private final Span resultCount;
 
@@ -48,7 +59,16 @@ public class FilterForm extends VerticalLayout {
     /** Auswahlfeld für Klausurnamen */
     private final ComboBox<String> examNameBox;
 
-    /** Service zur Umwandlung von {@link Event}-Objekten in Kalender-Einträge */
+    /** Aktuelle Trefferzahlen je Filterdimension */
+    private final Map<Facet, FacetCounts> facetCounts = new EnumMap<>(Facet.class);
+
+    /** Zähler der Filteränderungen; nur die Auswertung der neuesten Änderung wird ausgeführt */
+    private long filterGeneration;
+
+    /** Noch ausstehende, verzögerte Auswertung oder {@code null} */
+    private transient ScheduledFuture<?> pendingUpdate;
+
+    /** Service zur Umwandlung von {@link Exam}-Objekten in Kalender-Einträge */
     private final CalendarService service;
 
     
@@ -56,10 +76,10 @@ public class FilterForm extends VerticalLayout {
      * Erstellt eine neue FilterForm-Komponente.
      *
      * @param db       die Datenbank mit Klausurinformationen
-     * @param calendar der Kalender, der aktualisiert werden soll
-     * @param service  der Service zur Erstellung von Kalender-Einträgen
+     * @param service   der Service zur Erstellung von Kalender-Einträgen
+     * @param scheduler gemeinsamer Zeitgeber für verzögerte Filterauswertungen
      */
-    public FilterForm(ExamDB db, FullCalendar calendar, CalendarService service) {
+    public FilterForm(ExamDB db, CalendarService service, TaskScheduler scheduler) {
     	
         setAlignItems(Alignment.CENTER);
         setPadding(false);
@@ -67,13 +87,17 @@ public class FilterForm extends VerticalLayout {
         
 		this.resultCount = new Span();
         this.service = service;
+        this.scheduler = scheduler;
         
-        groupBox = createComboBox("Studierendenset:", db.getAllGroups());
-        examinerBox = createComboBox("Dozent:", db.getAllExaminers());
-        roomBox = createComboBox("Raum:", db.getAllRooms());
-        examNameBox = createComboBox("Klausur:", db.getAllNames());
+        groupBox = createComboBox("Studierendenset:", db, Facet.GROUP);
+        examinerBox = createComboBox("Dozent:", db, Facet.EXAMINER);
+        roomBox = createComboBox("Raum:", db, Facet.ROOM);
+        examNameBox = createComboBox("Klausur:", db, Facet.NAME);
         
-        int maxLength = db.getAllNames().stream().mapToInt(String::length).max().orElse(10);
+        int maxLength = 10;
+        for (String name : db.getFacetValues(Facet.NAME)) {
+            maxLength = Math.max(maxLength, name.length());
+        }
         examNameBox.setWidth((maxLength - 20) + "ch");
 
         FlexLayout layout = new FlexLayout(groupBox, examinerBox, roomBox, examNameBox);
@@ -85,7 +109,13 @@ public class FilterForm extends VerticalLayout {
         
         add(layout);
         add(resultCount);
-        setupListeners(db, calendar);
+        setupListeners(db);
+        addDetachListener(e -> {
+            if (pendingUpdate != null) {
+                e.getUI().setPollInterval(-1);
+            }
+            cancelPendingUpdate();
+        });
     }
     
     /**
@@ -98,15 +128,31 @@ public class FilterForm extends VerticalLayout {
     }
 
     /**
-     * Erstellt ein {@link ComboBox}-Element mit gegebenem Label und Einträgen.
+     * Erstellt ein {@link ComboBox}-Element für eine Filterdimension.
+     * <p>
+     * Die Einträge verweisen auf das gemeinsame Wörterbuch des Katalogs und werden nicht kopiert.
+     * Angezeigt werden nur Werte mit mindestens einem Treffer sowie der aktuell gewählte Wert.
+     * Klausurnamen und Dozenten werden nicht vollständig übertragen, sondern während der Eingabe
+     * über die fehlertolerante Suche des Katalogs seitenweise nachgeladen.
      *
      * @param label Beschriftung des Auswahlfeldes
-     * @param items Menge der auswählbaren Einträge
+     * @param db    die Datenbank mit Klausurinformationen
+     * @param facet die Filterdimension des Auswahlfeldes
      * @return konfigurierte {@link ComboBox}
      */
-    private ComboBox<String> createComboBox(String label, Set<String> items) {
+    private ComboBox<String> createComboBox(String label, ExamDB db, Facet facet) {
         ComboBox<String> box = new ComboBox<>(label);
-        box.setItems(items);
+        facetCounts.put(facet, db.countFacetValues(facet, null, null, null, null));
+        if (facet == Facet.NAME || facet == Facet.EXAMINER) {
+            box.setItems(query -> db.searchFacetValues(facet, query.getFilter().orElse("")).stream()
+                .filter(value -> isSelectable(facet, box, value))
+                .skip(query.getOffset())
+                .limit(query.getLimit()));
+        } else {
+            box.setItems(db.getFacetValues(facet))
+                .setFilter(value -> isSelectable(facet, box, value));
+        }
+        box.setItemLabelGenerator(value -> value + " (" + facetCounts.get(facet).count(value) + ")");
         box.setPlaceholder("Bitte auswählen");
         box.setClearButtonVisible(true);
         box.setWidth("200px");
@@ -114,41 +160,105 @@ public class FilterForm extends VerticalLayout {
         return box;
     }
 
+    /**
+     * Prüft, ob ein Wert im Auswahlfeld angeboten wird.
+     *
+     * @param facet die Filterdimension des Auswahlfeldes
+     * @param box   das Auswahlfeld
+     * @param value der Wert
+     * @return {@code true}, wenn der Wert Treffer hat oder gerade ausgewählt ist
+     */
+    private boolean isSelectable(Facet facet, ComboBox<String> box, String value) {
+        return facetCounts.get(facet).count(value) > 0 || value.equals(box.getValue());
+    }
+
     /**
      * Registriert Listener für alle Filterfelder, um bei Änderungen den Kalender zu aktualisieren.
      *
-     * @param db       die Datenbank mit Klausurinformationen
-     * @param calendar der Kalender, der aktualisiert werden soll
+     * @param db die Datenbank mit Klausurinformationen
      */
-    private void setupListeners(ExamDB db, FullCalendar calendar) {
+    private void setupListeners(ExamDB db) {
         Stream.of(groupBox, examinerBox, roomBox, examNameBox)
-            .forEach(box -> box.addValueChangeListener(e -> updateCalendar(db, calendar)));
+            .forEach(box -> box.addValueChangeListener(e -> scheduleUpdate(db)));
+    }
+
+    /**
+     * Plant die Aktualisierung des Kalenders nach einer kurzen Wartezeit.
+     * <p>
+     * Jede Änderung erhöht den Generationszähler und verwirft eine noch ausstehende Aktualisierung.
+     * So werden mehrere Änderungen kurz nacheinander (z. B. beim Leeren mehrerer Felder) zu einer
+     * einzigen Auswertung und einer einzigen Antwort an den Browser zusammengefasst. Die Anwendung
+     * verwendet keinen Server-Push: Solange eine Auswertung aussteht, fragt der Browser im Abstand
+     * der Wartezeit nach, und das Ergebnis wird mit der nächsten Abfrage übertragen.
+     *
+     * @param db die Datenbank mit Klausurinformationen
+     */
+    private void scheduleUpdate(ExamDB db) {
+        long generation = ++filterGeneration;
+        cancelPendingUpdate();
+
+        UI ui = UI.getCurrent();
+        if (ui == null) {
+            updateCalendar(db);
+            return;
+        }
+        ui.setPollInterval((int) DEBOUNCE_MILLIS);
+        pendingUpdate = scheduler.schedule(() -> {
+            try {
+                ui.access(() -> {
+                    // Eine neuere Änderung hat diese Auswertung überholt
+                    if (generation == filterGeneration) {
+                        ui.setPollInterval(-1);
+                        updateCalendar(db);
+                    }
+                });
+            } catch (UIDetachedException e) {
+                // Ansicht wurde inzwischen geschlossen
+            }
+        }, Instant.now().plusMillis(DEBOUNCE_MILLIS));
+    }
+
+    /**
+     * Verwirft eine noch ausstehende Aktualisierung.
+     */
+    private void cancelPendingUpdate() {
+        if (pendingUpdate != null) {
+            pendingUpdate.cancel(false);
+            pendingUpdate = null;
+        }
     }
 
     /**
      * Aktualisiert den Kalender basierend auf den aktuellen Filterwerten.
      *
-     * @param db       die Datenbank mit Klausurinformationen
-     * @param calendar der Kalender, der aktualisiert werden soll
+     * @param db die Datenbank mit Klausurinformationen
      */
-    private void updateCalendar(ExamDB db, FullCalendar calendar) {
+    private void updateCalendar(ExamDB db) {
         String group = groupBox.getValue();
         String examiner = examinerBox.getValue();
         String room = roomBox.getValue();
         String examName = examNameBox.getValue();
 
-        InMemoryEntryProvider<Entry> provider = calendar.getEntryProvider().asInMemory();
-        provider.removeAllEntries();
+        updateResultCount(db.countFilteredExams(group, examiner, room, examName));
+        updateFacetCounts(db, group, examiner, room, examName);
+        service.setFilter(group, examiner, room, examName);
+    }
 
-        List<Event> filteredEvents = db.getExamsAsEvents(db.getFilteredExams(group, examiner, room, examName));
-        updateResultCount(filteredEvents.size());
-        
-        if (!filteredEvents.isEmpty()) {
-            LocalDate jumpDate = LocalDateTime.parse(filteredEvents.get(0).getStart()).toLocalDate();
-            calendar.gotoDate(jumpDate);
+    /**
+     * Berechnet die Trefferzahlen aller Filterdimensionen für die aktuelle Auswahl neu
+     * und aktualisiert die angezeigten Einträge der Auswahlfelder.
+     *
+     * @param db       die Datenbank mit Klausurinformationen
+     * @param group    gewählte Gruppe (optional)
+     * @param examiner gewählter Dozent (optional)
+     * @param room     gewählter Raum (optional)
+     * @param examName gewählte Klausur (optional)
+     */
+    private void updateFacetCounts(ExamDB db, String group, String examiner, String room, String examName) {
+        for (Facet facet : Facet.values()) {
+            facetCounts.put(facet, db.countFacetValues(facet, group, examiner, room, examName));
         }
-        
-        filteredEvents.forEach(ev -> provider.addEntries(service.createEntry(ev)));
-        provider.refreshAll();
+        Stream.of(groupBox, examinerBox, roomBox, examNameBox)
+            .forEach(box -> box.getGenericDataView().refreshAll());
     }
 }
\ No newline at end of file
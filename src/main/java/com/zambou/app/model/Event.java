@@ -1,5 +1,7 @@
 package com.zambou.app.model;
 
+import java.time.LocalDateTime;
+
 /**
  * Repräsentiert eine einzelne Klausur als Event im Kalender
  * mit relevanten Metadaten wie Titel, Zeitrahmen, Gruppen, Prüfer und Raum.
@@ -15,11 +17,11 @@ public class Event {
     /** Titel der Event */
     private String title;
 
-    /** Startzeitpunkt im ISO-Format */
-    private String start;
+    /** Startzeitpunkt */
+    private LocalDateTime start;
 
-    /** Endzeitpunkt im ISO-Format */
-    private String end;
+    /** Endzeitpunkt */
+    private LocalDateTime end;
 
     /** Zugeordnete Gruppen */
     private String groups;
@@ -35,13 +37,13 @@ public class Event {
      *
      * @param id        eindeutige ID des Events
      * @param title     Titel des Events
-     * @param start     Startzeitpunkt im ISO-Format
-     * @param end       Endzeitpunkt im ISO-Format
+     * @param start     Startzeitpunkt
+     * @param end       Endzeitpunkt
      * @param groups    zugeordnete Gruppen
      * @param examiner  Name des Prüfers
      * @param rooms     Raum
      */
-	public Event(int id, String title, String start, String end, String groups, String examiner, String rooms) {
+	public Event(int id, String title, LocalDateTime start, LocalDateTime end, String groups, String examiner, String rooms) {
 		this.id = id;
 		this.title = title;
 		this.start = start;
@@ -72,18 +74,18 @@ public class Event {
     /**
      * Gibt den Startzeitpunkt zurück.
      *
-     * @return Startzeitpunkt im ISO-Format
+     * @return Startzeitpunkt
      */
-    public String getStart() {
+    public LocalDateTime getStart() {
         return start;
     }
 
     /**
      * Gibt den Endzeitpunkt zurück.
      *
-     * @return Endzeitpunkt im ISO-Format
+     * @return Endzeitpunkt
      */
-    public String getEnd() {
+    public LocalDateTime getEnd() {
         return end;
     }
 
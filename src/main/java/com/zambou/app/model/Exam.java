@@ -1,53 +1,52 @@
 package com.zambou.app.model;
 
-import java.util.Arrays;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
-
-import com.opencsv.bean.CsvBindByName;
+import java.util.Objects;
 
 /**
  * Repräsentiert eine Klausur, die aus einer CSV-Datei geladen wird.
- * Die Felder sind an Spaltennamen gebunden und werden mit OpenCSV eingelesen.
+ * Die Felder entsprechen den Spalten {@code ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME}.
+ * <p>
+ * Eine {@code Exam} speichert selbst keine Werte, sondern ist eine Sicht auf eine Zeile der
+ * spaltenorientierten {@link ExamColumns}-Ablage. Instanzen werden ausschließlich von dieser
+ * Ablage erzeugt.
  *
  * @author Yvan Zambou
- * @version 1.0
+ * @version 1.1
  */
 public class Exam {
 
-	/** Eindeutige ID der Klausur */
-	@CsvBindByName(column = "ID")
-	private int id;
-	
-	/** Datum der Klausur (z. B. "Do., 26.06.") */
-	@CsvBindByName(column = "DATUM")
-	private String date;
-	
-	/** Uhrzeit der Klausur im Format "HH:mm" (z. B. "10:30") */
-	@CsvBindByName(column = "ZEIT")
-	private String time;
-	
-	/** Kommagetrennte Liste von Gruppenbezeichnungen (z. B. "I4,IP4,M6-MI") */
-	@CsvBindByName(column = "GRUPPEN")
-	private String groups;
-	
-	/** Name bzw. Titel der Klausur */
-	@CsvBindByName(column = "NAME")
-	private String name;
-	
-	 /** Name des Prüfers oder der Prüferin */
-	@CsvBindByName(column = "PRUEFER")
-	private String examiner;
+	/** Pauschale Dauer einer Klausur in Minuten */
+	public static final int DURATION_MINUTES = 150;
+
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	/** Ablage, in der die Werte dieser Klausur liegen */
+	private final ExamColumns columns;
 	
-	/** Kommagetrennte Liste von Raumbezeichnungen (z. B. "Dynexite,Coram") */
-	@CsvBindByName(column = "RAEUME")
-	private String rooms;
+	/** Position der Klausur in {@link #columns} */
+	private final int row;
+
+	/**
+	 * Erstellt eine Sicht auf eine Zeile der Ablage.
+	 *
+	 * @param columns Ablage mit den Werten
+	 * @param row     Position der Klausur in der Ablage
+	 */
+	Exam(ExamColumns columns, int row) {
+		this.columns = columns;
+		this.row = row;
+	}
 
 	/**
      * Gibt die eindeutige ID der Klausur zurück.
      * @return die Prüfungs-ID
      */
 	public int getId() {
-		return id;
+		return columns.id(row);
 	}
 
 	/**
@@ -55,7 +54,7 @@ public class Exam {
 	 * @return das Datum als String
 	 */
 	public String getDate() {
-		return date;
+		return columns.date(row);
 	}
 
 	/**
@@ -63,7 +62,7 @@ public class Exam {
      * @return die Uhrzeit als String
      */
 	public String getTime() {
-		return time;
+		return columns.time(row);
 	}
 
 	/**
@@ -71,7 +70,7 @@ public class Exam {
      * @return die Gruppen als String
      */
 	public String getGroups() {
-		return groups;
+		return columns.groups(row);
 	}
 	
 	/**
@@ -79,7 +78,7 @@ public class Exam {
      * @return der Prüfungsname
      */
 	public String getName() {
-		return name;
+		return columns.name(row);
 	}
 
 	/**
@@ -87,7 +86,7 @@ public class Exam {
      * @return der Prüfername
      */
 	public String getExaminer() {
-		return examiner;
+		return columns.examiner(row);
 	}
 
 	/**
@@ -95,22 +94,86 @@ public class Exam {
      * @return die Räume als String
      */
 	public String getRooms() {
-		return rooms;
+		return columns.rooms(row);
 	}
 	
+	/**
+     * Gibt den Beginn der Klausur zurück.
+     * <p>
+     * Jeder Aufruf erzeugt ein neues Objekt; zum Vergleichen und Sortieren ist
+     * {@link #getStartMinute()} vorzuziehen.
+     * @return Beginn als {@link LocalDateTime}
+     */
+	public LocalDateTime getStart() {
+		return toDateTime(getStartMinute());
+	}
+
+	/**
+     * Gibt das Ende der Klausur zurück.
+     * @return Ende als {@link LocalDateTime}
+     */
+	public LocalDateTime getEnd() {
+		return toDateTime(getStartMinute() + DURATION_MINUTES);
+	}
+
+	/**
+     * Gibt den Tag der Klausur zurück.
+     * @return Prüfungstag als {@link LocalDate}
+     */
+	public LocalDate getStartDate() {
+		return LocalDate.ofEpochDay(Math.floorDiv(getStartMinute(), MINUTES_PER_DAY));
+	}
+
+	/**
+     * Gibt den Beginn der Klausur als Minuten seit der Epoche zurück.
+     * @return Beginn in Minuten (lokale Zeit)
+     */
+	public long getStartMinute() {
+		return columns.startMinute(row);
+	}
+
+	private static LocalDateTime toDateTime(long minute) {
+		return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+	}
+
 	/**
      * Gibt alle Gruppen als Liste einzelner Strings zurück.
-     * @return Liste der Gruppen
+     * @return unveränderliche Liste der Gruppen
      */
 	public List<String> getAllGroupsAsList() {
-		return Arrays.stream(groups.split(",")).map(String::trim).toList();
+		return columns.groupList(row);
 	}
 
 	 /**
      * Gibt alle Räume als Liste einzelner Strings zurück.
-     * @return Liste der Räume
+     * @return unveränderliche Liste der Räume
      */
 	public List<String> getAllRoomsAsList() {
-		return Arrays.stream(rooms.split(",")).map(String::trim).toList();
+		return columns.roomList(row);
+	}
+
+	/**
+	 * Vergleicht zwei Klausuren anhand aller eingelesenen Felder.
+	 * <p>
+	 * Wird beim Neuladen des Katalogs genutzt, um Änderungen zwischen zwei Schnappschüssen zu erkennen.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+	    if (this == obj) return true;
+	    if (obj == null || getClass() != obj.getClass()) return false;
+	    Exam other = (Exam) obj;
+	    return getId() == other.getId()
+	    		&& getStartMinute() == other.getStartMinute()
+	    		&& Objects.equals(getDate(), other.getDate())
+	    		&& Objects.equals(getTime(), other.getTime())
+	    		&& Objects.equals(getGroups(), other.getGroups())
+	    		&& Objects.equals(getName(), other.getName())
+	    		&& Objects.equals(getExaminer(), other.getExaminer())
+	    		&& Objects.equals(getRooms(), other.getRooms());
+	}
+
+	@Override
+	public int hashCode() {
+	    return Objects.hash(getId(), getDate(), getTime(), getGroups(), getName(), getExaminer(), getRooms(), getStartMinute());
 	}
-}
\ No newline at end of file
+}
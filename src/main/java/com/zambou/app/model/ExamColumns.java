@@ -0,0 +1,392 @@
+package com.zambou.app.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spaltenorientierte Ablage aller Klausuren eines Katalog-Schnappschusses.
+ * <p>
+ * Alle Texte (Datum, Uhrzeit, Gruppen, Räume, Name, Prüfer) werden über ein gemeinsames
+ * Wörterbuch auf kleine {@code int}-Codes abgebildet, sodass jeder Wert nur einmal im Speicher liegt,
+ * egal in wie vielen Klausuren er vorkommt. Je Spalte gibt es ein primitives Array, dessen Index die
+ * Position der Klausur ist. Mehrwertige Felder (einzelne Gruppen und Räume) liegen als Abschnitte
+ * in einem gemeinsamen Code-Array, beschrieben durch Startpositionen.
+ * <p>
+ * {@link Exam}-Objekte sind leichte Sichten auf eine Zeile dieser Ablage und werden einmalig beim
+ * Aufbau erzeugt. Die Ablage ist nach dem Aufbau unveränderlich und lässt sich binär speichern
+ * und wieder einlesen, ohne die CSV-Quelle erneut zu verarbeiten.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public final class ExamColumns {
+
+	/** Wörterbuch aller vorkommenden Texte, Index ist der Code */
+	private final String[] strings;
+
+	private final int[] ids;
+	private final int[] dateCodes;
+	private final int[] timeCodes;
+	private final int[] groupsCodes;
+	private final int[] nameCodes;
+	private final int[] examinerCodes;
+	private final int[] roomsCodes;
+
+	/** Beginn als Minuten seit der Epoche (lokale Zeit, ohne Zeitzone) */
+	private final long[] startMinutes;
+
+	/** Einzelne Gruppen je Zeile: Codes in {@code groupValues[groupOffsets[row] .. groupOffsets[row + 1]]} */
+	private final int[] groupOffsets;
+	private final int[] groupValues;
+
+	/** Einzelne Räume je Zeile: Codes in {@code roomValues[roomOffsets[row] .. roomOffsets[row + 1]]} */
+	private final int[] roomOffsets;
+	private final int[] roomValues;
+
+	/** Sichten auf die einzelnen Zeilen */
+	private final List<Exam> exams;
+
+	private ExamColumns(String[] strings, int[] ids, int[] dateCodes, int[] timeCodes, int[] groupsCodes,
+			int[] nameCodes, int[] examinerCodes, int[] roomsCodes, long[] startMinutes, int[] groupOffsets,
+			int[] groupValues, int[] roomOffsets, int[] roomValues) {
+		this.strings = strings;
+		this.ids = ids;
+		this.dateCodes = dateCodes;
+		this.timeCodes = timeCodes;
+		this.groupsCodes = groupsCodes;
+		this.nameCodes = nameCodes;
+		this.examinerCodes = examinerCodes;
+		this.roomsCodes = roomsCodes;
+		this.startMinutes = startMinutes;
+		this.groupOffsets = groupOffsets;
+		this.groupValues = groupValues;
+		this.roomOffsets = roomOffsets;
+		this.roomValues = roomValues;
+
+		Exam[] views = new Exam[ids.length];
+		for (int row = 0; row < views.length; row++) {
+			views[row] = new Exam(this, row);
+		}
+		this.exams = List.of(views);
+	}
+
+	/**
+     * Schreibt die Ablage in ein binäres Format, das mit {@link #readFrom(ByteBuffer)} wieder gelesen werden kann.
+     * <p>
+     * Geschrieben werden das Wörterbuch (UTF-8) und anschließend alle Spalten-Arrays unverändert.
+     *
+     * @param out Zielstrom
+     * @throws IOException bei Schreibfehlern
+     */
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(strings.length);
+		for (String value : strings) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		out.writeInt(ids.length);
+		for (int[] column : new int[][] { ids, dateCodes, timeCodes, groupsCodes, nameCodes, examinerCodes, roomsCodes,
+				groupOffsets, roomOffsets }) {
+			for (int value : column) {
+				out.writeInt(value);
+			}
+		}
+		for (long value : startMinutes) {
+			out.writeLong(value);
+		}
+		for (int[] values : new int[][] { groupValues, roomValues }) {
+			out.writeInt(values.length);
+			for (int value : values) {
+				out.writeInt(value);
+			}
+		}
+	}
+
+	/**
+     * Liest eine mit {@link #writeTo(DataOutputStream)} geschriebene Ablage.
+     * <p>
+     * Die Spalten werden blockweise aus dem Puffer kopiert; nur die Texte des Wörterbuchs müssen
+     * dekodiert werden.
+     *
+     * @param in Puffer, positioniert am Anfang der Ablage; wird bis hinter die Ablage weitergesetzt
+     * @return die gelesene Ablage
+     * @throws java.nio.BufferUnderflowException wenn der Puffer vorzeitig endet
+     */
+	public static ExamColumns readFrom(ByteBuffer in) {
+		String[] strings = new String[in.getInt()];
+		for (int i = 0; i < strings.length; i++) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		int size = in.getInt();
+		int[] ids = readInts(in, size);
+		int[] dateCodes = readInts(in, size);
+		int[] timeCodes = readInts(in, size);
+		int[] groupsCodes = readInts(in, size);
+		int[] nameCodes = readInts(in, size);
+		int[] examinerCodes = readInts(in, size);
+		int[] roomsCodes = readInts(in, size);
+		int[] groupOffsets = readInts(in, size + 1);
+		int[] roomOffsets = readInts(in, size + 1);
+		long[] startMinutes = new long[size];
+		in.asLongBuffer().get(startMinutes);
+		in.position(in.position() + Long.BYTES * size);
+		int[] groupValues = readInts(in, in.getInt());
+		int[] roomValues = readInts(in, in.getInt());
+		return new ExamColumns(strings, ids, dateCodes, timeCodes, groupsCodes, nameCodes, examinerCodes, roomsCodes,
+				startMinutes, groupOffsets, groupValues, roomOffsets, roomValues);
+	}
+
+	/**
+     * Kopiert einen Block von {@code int}-Werten aus dem Puffer.
+     *
+     * @param in    Quellpuffer; wird hinter den Block weitergesetzt
+     * @param count Anzahl der Werte
+     * @return die gelesenen Werte
+     */
+	private static int[] readInts(ByteBuffer in, int count) {
+		int[] values = new int[count];
+		in.asIntBuffer().get(values);
+		in.position(in.position() + Integer.BYTES * count);
+		return values;
+	}
+
+	/**
+     * Gibt die Anzahl der Klausuren zurück.
+     *
+     * @return Anzahl der Zeilen
+     */
+	public int size() {
+		return exams.size();
+	}
+
+	/**
+     * Gibt alle Klausuren in Ladereihenfolge zurück.
+     *
+     * @return unveränderliche Liste der Zeilensichten
+     */
+	public List<Exam> getExams() {
+		return exams;
+	}
+
+	/**
+     * Schätzt den Speicherbedarf der Ablage einschließlich Wörterbuch und Zeilensichten.
+     *
+     * @return geschätzter Speicherbedarf in Bytes
+     */
+	public long estimatedBytes() {
+		long bytes = 16L * strings.length;
+		for (String s : strings) {
+			bytes += 24 + 16 + s.length() * (s.chars().allMatch(c -> c < 256) ? 1L : 2L);
+		}
+		bytes += 4L * (ids.length * 7 + groupOffsets.length + groupValues.length + roomOffsets.length + roomValues.length);
+		bytes += 8L * startMinutes.length;
+		bytes += 24L * exams.size();
+		return bytes;
+	}
+
+	int id(int row) {
+		return ids[row];
+	}
+
+	String date(int row) {
+		return strings[dateCodes[row]];
+	}
+
+	String time(int row) {
+		return strings[timeCodes[row]];
+	}
+
+	String groups(int row) {
+		return strings[groupsCodes[row]];
+	}
+
+	String name(int row) {
+		return strings[nameCodes[row]];
+	}
+
+	String examiner(int row) {
+		return strings[examinerCodes[row]];
+	}
+
+	String rooms(int row) {
+		return strings[roomsCodes[row]];
+	}
+
+	long startMinute(int row) {
+		return startMinutes[row];
+	}
+
+	List<String> groupList(int row) {
+		return slice(groupValues, groupOffsets[row], groupOffsets[row + 1]);
+	}
+
+	List<String> roomList(int row) {
+		return slice(roomValues, roomOffsets[row], roomOffsets[row + 1]);
+	}
+
+	/**
+     * Liefert eine unveränderliche Sicht auf einen Abschnitt eines Code-Arrays.
+     *
+     * @param codes Code-Array
+     * @param from  erste Position (einschließlich)
+     * @param to    letzte Position (ausschließlich)
+     * @return Liste der zugehörigen Texte aus dem Wörterbuch
+     */
+	private List<String> slice(int[] codes, int from, int to) {
+		return new AbstractList<>() {
+			@Override
+			public String get(int index) {
+				return strings[codes[from + index]];
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		};
+	}
+
+	/**
+     * Baut eine {@link ExamColumns}-Ablage zeilenweise auf.
+     * <p>
+     * Texte werden beim Hinzufügen in das Wörterbuch aufgenommen; gleiche Texte erhalten denselben Code.
+     */
+	public static final class Builder {
+
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Integer> codes = new HashMap<>();
+
+		private int size;
+		private int[] ids = new int[64];
+		private int[] dateCodes = new int[64];
+		private int[] timeCodes = new int[64];
+		private int[] groupsCodes = new int[64];
+		private int[] nameCodes = new int[64];
+		private int[] examinerCodes = new int[64];
+		private int[] roomsCodes = new int[64];
+		private long[] startMinutes = new long[64];
+		private int[] groupOffsets = new int[65];
+		private int[] groupValues = new int[128];
+		private int[] roomOffsets = new int[65];
+		private int[] roomValues = new int[128];
+
+		/**
+	     * Fügt eine Klausur mit den Werten einer CSV-Zeile hinzu.
+	     *
+	     * @param id       eindeutige ID der Klausur
+	     * @param date     Datum (z. B. "Do., 26.06.")
+	     * @param time     Uhrzeit im Format "HH:mm"
+	     * @param groups   kommagetrennte Gruppenbezeichnungen
+	     * @param name     Name der Klausur
+	     * @param examiner Name des Prüfers oder der Prüferin
+	     * @param rooms    kommagetrennte Raumbezeichnungen
+	     * @param start    aus Datum und Uhrzeit aufgelöster Beginn der Klausur
+	     * @return dieser Builder
+	     */
+		public Builder add(int id, String date, String time, String groups, String name, String examiner, String rooms,
+				LocalDateTime start) {
+			if (size == ids.length) {
+				grow();
+			}
+			ids[size] = id;
+			dateCodes[size] = code(date);
+			timeCodes[size] = code(time);
+			groupsCodes[size] = code(groups);
+			nameCodes[size] = code(name);
+			examinerCodes[size] = code(examiner);
+			roomsCodes[size] = code(rooms);
+			startMinutes[size] = start.toEpochSecond(ZoneOffset.UTC) / 60;
+			groupValues = appendSplit(groups, groupValues, groupOffsets);
+			roomValues = appendSplit(rooms, roomValues, roomOffsets);
+			size++;
+			return this;
+		}
+
+		/**
+	     * Schließt den Aufbau ab.
+	     *
+	     * @return unveränderliche Ablage mit allen hinzugefügten Klausuren
+	     */
+		public ExamColumns build() {
+			return new ExamColumns(strings.toArray(String[]::new), Arrays.copyOf(ids, size),
+					Arrays.copyOf(dateCodes, size), Arrays.copyOf(timeCodes, size), Arrays.copyOf(groupsCodes, size),
+					Arrays.copyOf(nameCodes, size), Arrays.copyOf(examinerCodes, size), Arrays.copyOf(roomsCodes, size),
+					Arrays.copyOf(startMinutes, size), Arrays.copyOf(groupOffsets, size + 1),
+					Arrays.copyOf(groupValues, groupOffsets[size]), Arrays.copyOf(roomOffsets, size + 1),
+					Arrays.copyOf(roomValues, roomOffsets[size]));
+		}
+
+		/**
+	     * Liefert den Wörterbuch-Code eines Textes und nimmt ihn bei Bedarf neu auf.
+	     *
+	     * @param value Text
+	     * @return Code des Textes
+	     */
+		private int code(String value) {
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = strings.size();
+				strings.add(value);
+				codes.put(value, code);
+			}
+			return code;
+		}
+
+		/**
+	     * Zerlegt eine kommagetrennte Liste und hängt die Codes der Einzelwerte an.
+	     * Leere Einträge werden übergangen.
+	     *
+	     * @param list    kommagetrennte Liste
+	     * @param values  Code-Array der Einzelwerte
+	     * @param offsets Startpositionen je Zeile; {@code offsets[size + 1]} wird gesetzt
+	     * @return das (gegebenenfalls vergrößerte) Code-Array
+	     */
+		private int[] appendSplit(String list, int[] values, int[] offsets) {
+			int end = offsets[size];
+			int from = 0;
+			while (true) {
+				int comma = list.indexOf(',', from);
+				String part = (comma < 0 ? list.substring(from) : list.substring(from, comma)).trim();
+				if (!part.isEmpty()) {
+					if (end == values.length) {
+						values = Arrays.copyOf(values, values.length * 2);
+					}
+					values[end++] = code(part);
+				}
+				if (comma < 0) {
+					break;
+				}
+				from = comma + 1;
+			}
+			offsets[size + 1] = end;
+			return values;
+		}
+
+		private void grow() {
+			int capacity = ids.length * 2;
+			ids = Arrays.copyOf(ids, capacity);
+			dateCodes = Arrays.copyOf(dateCodes, capacity);
+			timeCodes = Arrays.copyOf(timeCodes, capacity);
+			groupsCodes = Arrays.copyOf(groupsCodes, capacity);
+			nameCodes = Arrays.copyOf(nameCodes, capacity);
+			examinerCodes = Arrays.copyOf(examinerCodes, capacity);
+			roomsCodes = Arrays.copyOf(roomsCodes, capacity);
+			startMinutes = Arrays.copyOf(startMinutes, capacity);
+			groupOffsets = Arrays.copyOf(groupOffsets, capacity + 1);
+			roomOffsets = Arrays.copyOf(roomOffsets, capacity + 1);
+		}
+	}
+}
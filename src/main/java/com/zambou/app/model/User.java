@@ -1,6 +1,7 @@
 package com.zambou.app.model;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
 
@@ -19,6 +20,9 @@ public class User implements Serializable {
 	
 	private UUID uuid;
 	private Set<Integer> ids;
+
+	/** Zeitpunkt der letzten gespeicherten Änderung der Auswahl, {@code null} bei älteren Datensätzen */
+	private Instant modifiedAt;
 	
 	/**
 	 * Erstellt einen neuen Benutzer mit der angegebenen UUID und einer Menge von IDs.
@@ -63,6 +67,22 @@ public class User implements Serializable {
 		this.ids = ids;
 	}
 	
+	/**
+	 * Gibt den Zeitpunkt der letzten gespeicherten Änderung der Auswahl zurück.
+	 * @return Änderungszeitpunkt oder {@code null}, falls er nicht bekannt ist
+	 */
+	public Instant getModifiedAt() {
+		return modifiedAt;
+	}
+
+	/**
+	 * Setzt den Zeitpunkt der letzten gespeicherten Änderung der Auswahl.
+	 * @param modifiedAt neuer Änderungszeitpunkt
+	 */
+	public void setModifiedAt(Instant modifiedAt) {
+		this.modifiedAt = modifiedAt;
+	}
+	
 	/**
 	 * Gibt die Anzahl der ausgewählten Klausur-IDs zurück.
 	 * @return Anzahl der IDs
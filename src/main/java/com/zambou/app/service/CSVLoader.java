@@ -2,13 +2,9 @@ package com.zambou.app.service;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 
 /**
- * Dienstklasse zum Laden von CSV-Ressourcen aus dem Klassenpfad und
- * zum Erstellen temporärer Dateien für die Weiterverarbeitung.
+ * Dienstklasse zum Laden von CSV-Ressourcen aus dem Klassenpfad.
  * 
  * @author Yvan Zambou
  * @version 1.0
@@ -16,25 +12,20 @@ import java.nio.file.StandardCopyOption;
 public class CSVLoader {
 
 	/**
-     * Lädt eine CSV-Datei aus dem Klassenpfad und speichert sie als temporäre Datei.
+     * Öffnet eine CSV-Datei aus dem Klassenpfad als {@link InputStream}.
      * <p>
-     * Diese Methode sucht die angegebene Ressource im Klassenpfad, kopiert deren Inhalt
-     * in eine temporäre Datei und gibt den absoluten Pfad dieser Datei zurück.
-     * Die temporäre Datei wird mit dem Präfix {@code klausuren-} und der Endung {@code .csv} erstellt.
+     * Die Ressource wird direkt gelesen, ohne sie vorher in eine temporäre Datei zu kopieren.
+     * Der Aufrufer ist für das Schließen des Streams verantwortlich.
      *
-     * @param resourcePath Pfad zur CSV-Ressource im Klassenpfad (z. B. {@code "csv/klausuren.csv"})
-     * @return absoluter Pfad zur temporär erstellten CSV-Datei
-     * @throws IOException wenn die Ressource nicht gefunden wird oder ein Fehler beim Schreiben auftritt
+     * @param resourcePath Pfad zur CSV-Ressource im Klassenpfad (z. B. {@code "csv/klausuren.csv"})
+     * @return geöffneter Stream auf den Inhalt der CSV-Ressource
+     * @throws IOException wenn die Ressource nicht gefunden wird
      */
-    public static String getTempFilePath(String resourcePath) throws IOException {
-    	
-    	try (InputStream input = CSVLoader.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            if (input == null) {
-            	throw new IOException("CSV-Datei nicht gefunden: " + resourcePath);
-            }
-            Path temp = Files.createTempFile("klausuren-", ".csv");
-            Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
-            return temp.toAbsolutePath().toString();
+    public static InputStream openResource(String resourcePath) throws IOException {
+    	InputStream input = CSVLoader.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (input == null) {
+        	throw new IOException("CSV-Datei nicht gefunden: " + resourcePath);
         }
+        return input;
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,26 @@
 package com.zambou.app.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.vaadin.stefan.fullcalendar.CalendarViewImpl;
 import org.vaadin.stefan.fullcalendar.Entry;
 import org.vaadin.stefan.fullcalendar.FullCalendar;
 import org.vaadin.stefan.fullcalendar.FullCalendarBuilder;
-import org.vaadin.stefan.fullcalendar.dataprovider.InMemoryEntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryQuery;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
@@ -26,7 +32,7 @@ import com.vaadin.flow.component.orderedlayout.FlexLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.orderedlayout.FlexLayout.FlexWrap;
 import com.zambou.app.component.ExportButton;
-import com.zambou.app.model.Event;
+import com.zambou.app.model.Exam;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
@@ -36,14 +42,32 @@ import elemental.json.JsonObject;
  * Die {@code CalendarService}-Klasse verwaltet die Darstellung und Interaktion
  * eines {@link FullCalendar}-Kalenders für Klausurtermine.
  *
- * <p>Sie lädt Daten aus einer CSV-basierten {@link ExamDB}, konfiguriert die Kalenderansicht,
- * erstellt visuelle Einträge und ermöglicht die Auswahl von Klausuren zur Exportmarkierung.</p>
+ * <p>Sie liest Daten aus dem gemeinsamen {@link ExamDB}-Schnappschuss, konfiguriert die Kalenderansicht,
+ * erstellt visuelle Einträge und ermöglicht die Auswahl von Klausuren zur Exportmarkierung.
+ * Wie ausgewählte Klausuren hervorgehoben werden, bestimmt der {@link SelectionMode}.</p>
+ *
+ * <p>Einträge werden nicht vorab für den ganzen Katalog erzeugt, sondern vom Kalender nur für den
+ * jeweils sichtbaren Zeitraum abgefragt und per Binärsuche im Katalog ermittelt.</p>
  * 
  * @author Yvan Zambou
  * @version 1.0
  */
 public class CalendarService {
 
+    private static final Logger log = LoggerFactory.getLogger(CalendarService.class);
+
+    /** Formatierung des Datums im Informationsdialog */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    /** Formatierung der Uhrzeit im Informationsdialog */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** Version des Add-ons {@code fullcalendar2}, gegen deren Browser-Interna {@link #sendDelta} geprüft ist */
+    private static final String DELTA_ADDON_VERSION = "6.3.1";
+
+    /** {@code true}, wenn das eingebundene Add-on der geprüften Version entspricht */
+    private static final boolean DELTA_SUPPORTED = isDeltaSupported();
+
 	/** Datenbank mit Klausurinformationen */
     private final ExamDB db;
 
@@ -53,18 +77,41 @@ public class CalendarService {
     /** Referenz zur Export-Schaltfläche für Aktualisierung nach Auswahl */
     private ExportButton exportButton;
 
+    /** Variante der Auswahldarstellung */
+    private final SelectionMode selectionMode;
+
+    /** Strategie zur Darstellung der Auswahl in diesem Kalender */
+    private final SelectionRenderer selectionRenderer;
+
+    /** Positionen der Klausuren, die dem aktuellen Filter entsprechen; {@code null} für alle */
+    private BitSet filterRows;
+
+    /** Zuletzt vom Kalender abgefragter Zeitraum; {@code null}, solange noch nichts abgefragt wurde */
+    private LocalDateTime fetchedFrom;
+    private LocalDateTime fetchedTo;
+
+    /** Angezeigtes Intervall der aktuellen Ansicht */
+    private LocalDate visibleStart;
+    private LocalDate visibleEnd;
+
     /**
-     * Erstellt einen neuen {@code CalendarService} mit Daten aus der angegebenen CSV-Datei.
+     * Erstellt einen neuen {@code CalendarService} mit Daten aus dem übergebenen Katalog-Schnappschuss.
      *
-     * @param csvPath Pfad zur CSV-Datei mit Klausurterminen
+     * @param db            gemeinsamer Schnappschuss des Klausurkatalogs
+     * @param selectionMode Variante der Hervorhebung ausgewählter Klausuren
      */
-    public CalendarService(String csvPath) {
-    	db = new ExamDB(csvPath);
+    public CalendarService(ExamDB db, SelectionMode selectionMode) {
+    	this.db = db;
+    	this.selectionMode = selectionMode;
     	
         calendar = FullCalendarBuilder.create().build();
-        calendar.setEntryProvider(new InMemoryEntryProvider<>(new ArrayList<>()));
+        selectionRenderer = selectionMode.createRenderer(calendar, db);
+        calendar.setEntryProvider(EntryProvider.fromCallbacks(this::fetchEntries, this::fetchEntry));
+        calendar.addAttachListener(event -> {
+            sendLabels();
+            selectionRenderer.attached();
+        });
         configureCalendar();
-        addEntries();
     }
 
     /**
@@ -90,29 +137,38 @@ public class CalendarService {
         calendar.setOption("slotLabelFormat", slotLabelFormat);
         
         // Gültiger Datumsbereich
-        List<LocalDate> range = db.getSortedDatesAsLocalDate();
-        calendar.setValidRange(range.getFirst(), range.getLast().plusDays(1));
+        calendar.setValidRange(db.firstDate(), db.lastDate().plusDays(1));
         
         calendar.changeView(CalendarViewImpl.DAY_GRID_MONTH);
         
         // Darstellung der Einträge im Kalender
         calendar.setEntryContentCallback("""
         	    function(arg) {
-				    const start = arg.event.extendedProps.customProperties.start;
-				    const end = arg.event.extendedProps.customProperties.end;
-				    const room = arg.event.extendedProps.customProperties.room;
-				    const examiner = arg.event.extendedProps.customProperties.examiner;
+        	        const id = Number(arg.event.groupId);
+        	        const row = arg.event.extendedProps.customProperties.row;
+        	        const labels = arg.view.calendar.examLabels || { rooms: [], examiners: [] };
+        	        const time = date => arg.view.calendar.formatDate(date, { hour: "2-digit", minute: "2-digit", hour12: false });
+				    const start = time(arg.event.start);
+				    const end = time(arg.event.end);
+				    const room = labels.rooms[arg.event.extendedProps.customProperties.room] ?? "";
+				    const examiner = labels.examiners[arg.event.extendedProps.customProperties.examiner] ?? "";
 				    const title = arg.event.title;
+				    const bgColor = BACKGROUND_COLOR;
 				
 				    const wrapper = document.createElement("div");
 				    wrapper.classList.add("hover-effekt");
-				    wrapper.setAttribute("style", "white-space: normal !important; padding: 5px; width: 100%; height: 100%; overflow: hidden; color: #fff; background-color: #3788d8; border-radius: 5px; transition: background-color 0.2s ease;");
+				    wrapper.setAttribute("style", `white-space: normal !important; padding: 5px; width: 100%; height: 100%; overflow: hidden; color: #fff; background-color: ${bgColor}; border-radius: 5px; transition: background-color 0.2s ease;`);
 				    
 				    wrapper.innerHTML = `<div>${start} - ${end}<br><strong>${title}</strong></div>
 				        				 <div>${examiner}@${room}</div>`;
 				    return { domNodes: [wrapper] };
 				}
-        	""");
+        	""".replace("BACKGROUND_COLOR", selectionRenderer.backgroundColorScript()));
+        
+        calendar.addDatesRenderedListener(event -> {
+            visibleStart = event.getIntervalStart();
+            visibleEnd = event.getIntervalEnd();
+        });
         
         // Interaktive Navigation
         calendar.setNumberClickable(true);
@@ -131,13 +187,16 @@ public class CalendarService {
         	Entry entry = event.getEntry();
             Integer id = Integer.parseInt(entry.getGroupId());
 
-            Map<String, Object> props = entry.getCustomProperties();
+            Exam exam = db.getExamById(id);
+            if (exam == null) {
+                return;
+            }
 
-            String modalTitle = entry.getTitle();
-            String modalDate = entry.getStart().toString();
-            String dayOfWeek = entry.getStart().getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.GERMAN);
-            String modalRoom = (String) props.get("room");
-            String modalExaminer = (String) props.get("examiner");
+            String modalTitle = exam.getName();
+            LocalDateTime modalDate = exam.getStart();
+            String dayOfWeek = modalDate.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.GERMAN);
+            String modalRoom = exam.getRooms();
+            String modalExaminer = exam.getExaminer();
 
             Dialog dialog = new Dialog();
             dialog.setHeaderTitle("Information");
@@ -174,6 +233,8 @@ public class CalendarService {
                     markedExamNotification(modalTitle, true).open();
                 }
                 UserSessionService.storeUser();
+                InteractionMetrics.measure(selectionMode, "Auswahl",
+                        () -> selectionRenderer.selectionChanged(id, !selected), IntSupplier::getAsInt);
                 
                 UI ui = UI.getCurrent();
                 if (ui != null && exportButton != null) {
@@ -193,57 +254,233 @@ public class CalendarService {
     }
     
     /**
-     * Fügt alle Klausurtermine aus der Datenbank (CSV-Datei) als Einträge in den Kalender ein.
+     * Überträgt die Wörterbücher der Raum- und Prüferangaben einmalig an den Browser.
+     * <p>
+     * Die Einträge enthalten nur Positionen in diesen Wörterbüchern. Bereits dargestellte Einträge
+     * werden nach dem Eintreffen neu gezeichnet.
+     */
+    private void sendLabels() {
+        JsonArray rooms = Json.createArray();
+        db.getRoomLabels().forEach(label -> rooms.set(rooms.length(), label));
+        JsonArray examiners = Json.createArray();
+        db.getExaminerLabels().forEach(label -> examiners.set(examiners.length(), label));
+
+        calendar.getElement().executeJs("""
+                const apply = () => {
+                    const calendar = this.calendar;
+                    if (!calendar) {
+                        requestAnimationFrame(apply);
+                        return;
+                    }
+                    calendar.examLabels = { rooms: $0, examiners: $1 };
+                    calendar.getEvents().forEach(e => e.setExtendedProp("labels", true));
+                };
+                apply();
+                """, rooms, examiners);
+    }
+
+    /**
+     * Liefert die Einträge für den vom Kalender angefragten Zeitraum.
+     *
+     * @param query angefragter Zeitraum
+     * @return Einträge aller passenden Klausuren im Zeitraum
      */
-    private void addEntries() {
-    	db.getExamsAsEvents(db.getAllExams()).forEach(ev ->
-    		calendar.getEntryProvider().asInMemory().addEntries(createEntry(ev))
-    	);
+    private Stream<Entry> fetchEntries(EntryQuery query) {
+        LocalDateTime from = query.getStart();
+        LocalDateTime to = query.getEnd();
+        fetchedFrom = from;
+        fetchedTo = to;
+
+        if (!InteractionMetrics.isEnabled()) {
+            return createEntries(from, to);
+        }
+        // Für die Messung müssen die Einträge innerhalb der gemessenen Arbeit erzeugt werden
+        List<Entry> entries = InteractionMetrics.measure(selectionMode, "Zeitraum",
+                () -> createEntries(from, to).toList(), InteractionMetrics::jsonBytes);
+        return entries.stream();
     }
-    
+
     /**
-     * Erstellt einen {@link Entry} für den Kalender basierend auf einem {@link Event}.
+     * Erzeugt die Einträge der passenden Klausuren im Zeitraum.
+     * <p>
+     * Die Klausuren werden sofort ermittelt, die Einträge erst beim Durchlaufen des Streams erzeugt.
      *
-     * @param ev das Event-Objekt
+     * @param from Beginn des Zeitraums oder {@code null}
+     * @param to   Ende des Zeitraums oder {@code null}
+     * @return neue Einträge, aufsteigend nach Beginn
+     */
+    private Stream<Entry> createEntries(LocalDateTime from, LocalDateTime to) {
+        selectionRenderer.rangeFetched();
+        return db.examsBetween(from, to, filterRows).stream().map(this::createEntry);
+    }
+
+    /**
+     * Liefert den Eintrag mit der angegebenen ID, z. B. für Klick-Ereignisse des Kalenders.
+     *
+     * @param entryId ID des Eintrags
+     * @return der Eintrag oder {@code null}, falls keine passende Klausur existiert
+     */
+    private Entry fetchEntry(String entryId) {
+        Exam ex = db.getExamById(EntryTemplate.parseExamId(entryId));
+        return ex != null ? createEntry(ex) : null;
+    }
+
+    /**
+     * Setzt die Filterkriterien und aktualisiert die angezeigten Einträge.
+     * <p>
+     * Liegt die früheste passende Klausur außerhalb des angezeigten Intervalls, springt der Kalender
+     * dorthin und fragt den neuen Zeitraum selbst ab. Andernfalls werden nur die Unterschiede zum
+     * bisherigen Filter innerhalb des zuletzt abgefragten Zeitraums an den Browser gesendet, sofern das
+     * Add-on dies zulässt (siehe {@link #sendDelta}); sonst wird der Zeitraum neu abgefragt.
+     *
+     * @param group    gewählte Gruppe (optional)
+     * @param examiner gewählter Dozent (optional)
+     * @param room     gewählter Raum (optional)
+     * @param examName gewählte Klausur (optional)
+     */
+    public void setFilter(String group, String examiner, String room, String examName) {
+        BitSet previous = filterRows != null ? filterRows : db.matchingRows(null, null, null, null);
+        filterRows = db.matchingRows(group, examiner, room, examName);
+
+        LocalDate first = db.firstDate(group, examiner, room, examName);
+        if (first != null && visibleStart != null && (first.isBefore(visibleStart) || !first.isBefore(visibleEnd))) {
+            calendar.gotoDate(first);
+        } else if (fetchedFrom != null && DELTA_SUPPORTED) {
+            sendDelta(previous, filterRows);
+        } else {
+            calendar.getEntryProvider().refreshAll();
+        }
+    }
+
+    /**
+     * Sendet die Einträge, die durch einen Filterwechsel im zuletzt abgefragten Zeitraum hinzukommen
+     * oder wegfallen, in einem einzigen Aufruf an den Browser.
+     * <p>
+     * Hinzugefügte Einträge werden der Ereignisquelle des Kalenders zugeordnet, damit sie beim
+     * nächsten Abruf eines Zeitraums wie gewohnt ersetzt werden.
+     * <p>
+     * Der {@link EntryProvider} bietet nur das erneute Abrufen des ganzen Zeitraums
+     * ({@code refreshAll}) bzw. einzelner bekannter Einträge, aber kein Hinzufügen und Entfernen
+     * mehrerer Einträge in einem Aufruf. Der Unterschied wird daher direkt über die FullCalendar-API
+     * im Browser angewendet. Das nutzt Interna des Add-ons {@code fullcalendar2}, die nicht zu seiner
+     * öffentlichen Schnittstelle gehören: das FullCalendar-Objekt unter {@code this.calendar} des
+     * Elements und genau eine Ereignisquelle für den {@link EntryProvider}. Die Methode wird deshalb
+     * nur mit der geprüften Version {@value #DELTA_ADDON_VERSION} verwendet; mit jeder anderen Version
+     * lädt {@link #setFilter} den Zeitraum über {@code refreshAll} neu (siehe {@link #isDeltaSupported()}).
+     * Fehlt dennoch eine der Voraussetzungen, meldet der Browser dies zurück, es wird protokolliert und
+     * ebenfalls auf {@code refreshAll} zurückgegriffen.
+     *
+     * @param previous Positionen des bisherigen Filters
+     * @param current  Positionen des neuen Filters
+     */
+    private void sendDelta(BitSet previous, BitSet current) {
+        InteractionMetrics.measure(selectionMode, "Filter", () -> computeAndSendDelta(previous, current), IntSupplier::getAsInt);
+    }
+
+    /**
+     * Ermittelt die Unterschiede zwischen zwei Filtern im zuletzt abgefragten Zeitraum und sendet sie.
+     *
+     * @param previous Positionen des bisherigen Filters
+     * @param current  Positionen des neuen Filters
+     * @return ermittelt auf Anfrage die Anzahl der gesendeten Bytes (nur für {@link InteractionMetrics})
+     */
+    private IntSupplier computeAndSendDelta(BitSet previous, BitSet current) {
+        BitSet removedRows = (BitSet) previous.clone();
+        removedRows.andNot(current);
+        BitSet addedRows = (BitSet) current.clone();
+        addedRows.andNot(previous);
+
+        List<Exam> removed = db.examsBetween(fetchedFrom, fetchedTo, removedRows);
+        List<Exam> added = db.examsBetween(fetchedFrom, fetchedTo, addedRows);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return () -> 0;
+        }
+
+        JsonArray removedIds = Json.createArray();
+        removed.forEach(ex -> removedIds.set(removedIds.length(), db.getEntryTemplate(ex.getId()).getEntryId()));
+        JsonArray addedEntries = Json.createArray();
+        added.forEach(ex -> addedEntries.set(addedEntries.length(), createEntry(ex).toJson()));
+
+        calendar.getElement().executeJs("""
+                const calendar = this.calendar;
+                const sources = calendar?.getEventSources?.();
+                if (!sources || sources.length !== 1) {
+                    return false;
+                }
+                $0.forEach(id => calendar.getEventById(id)?.remove());
+                $1.forEach(json => calendar.addEvent(json, sources[0]));
+                return true;
+                """, removedIds, addedEntries).then(Boolean.class, applied -> {
+                    if (!Boolean.TRUE.equals(applied)) {
+                        log.warn("Filterwechsel konnte nicht im Browser angewendet werden (fullcalendar2 {}), Zeitraum wird neu geladen",
+                                DELTA_ADDON_VERSION);
+                        calendar.getEntryProvider().refreshAll();
+                    }
+                });
+
+        log.debug("Filterwechsel: {} Einträge hinzugefügt, {} entfernt", added.size(), removed.size());
+        return () -> removedIds.toJson().length() + addedEntries.toJson().length();
+    }
+
+    /**
+     * Prüft, ob das eingebundene Add-on {@code fullcalendar2} der Version entspricht, gegen deren
+     * Browser-Interna {@link #sendDelta} geprüft ist.
+     * <p>
+     * Die Version wird aus den Maven-Metadaten im JAR des Add-ons gelesen. Ist sie eine andere oder
+     * nicht ermittelbar, wird dies einmalig protokolliert und Filterwechsel laden den Zeitraum neu.
+     *
+     * @return {@code true}, wenn Unterschiede direkt im Browser angewendet werden dürfen
+     */
+    private static boolean isDeltaSupported() {
+        String version = null;
+        try (InputStream in = FullCalendar.class.getResourceAsStream("/META-INF/maven/org.vaadin.stefan/fullcalendar2/pom.properties")) {
+            if (in != null) {
+                Properties properties = new Properties();
+                properties.load(in);
+                version = properties.getProperty("version");
+            }
+        } catch (IOException e) {
+            log.debug("Version von fullcalendar2 nicht lesbar: {}", e.getMessage());
+        }
+        if (DELTA_ADDON_VERSION.equals(version)) {
+            return true;
+        }
+        log.warn("fullcalendar2 {} statt {} eingebunden, Filterwechsel laden den Zeitraum vollständig neu",
+                version != null ? version : "unbekannter Version", DELTA_ADDON_VERSION);
+        return false;
+    }
+
+    /**
+     * Erstellt einen {@link Entry} für den Kalender basierend auf einer {@link Exam}.
+     * <p>
+     * Alle Werte stammen aus der gemeinsamen {@link EntryTemplate} des Katalog-Schnappschusses;
+     * die Hervorhebung einer ausgewählten Klausur ergänzt die {@link SelectionRenderer}-Strategie.
+     *
+     * @param ex die Klausur
      * @return ein vollständiger Kalender-Eintrag
      */
-    public Entry createEntry(Event ev) {
-        Entry entry = new Entry();
-        entry.setGroupId(String.valueOf(ev.getId()));
-        entry.setTitle(ev.getTitle());
-        entry.setStart(LocalDateTime.parse(ev.getStart()));
-        entry.setEnd(LocalDateTime.parse(ev.getEnd()));
-        
-        Map<String, Object> customProps = new HashMap<>();
-        customProps.put("start", getTime(ev.getStart()));
-        customProps.put("end", getTime(ev.getEnd()));
-        customProps.put("room", ev.getRooms());
-        customProps.put("examiner", ev.getExaminer());
-        
-        entry.setCustomProperties(customProps);
-        return entry;
+    public Entry createEntry(Exam ex) {
+        return selectionRenderer.render(db.getEntryTemplate(ex.getId()).newEntry(), ex.getId());
     }
     
     /**
-     * Extrahiert das Datum aus einem ISO-Zeitstempel.
+     * Formatiert das Datum eines Zeitpunkts.
      *
-     * @param isoDateTime ISO-Zeitstempel (z. B. "2025-08-21T10:00")
+     * @param dateTime Zeitpunkt (z. B. 2025-08-21T10:00)
      * @return formatiertes Datum (z. B. "21.08.2025")
      */
-    private String getDate(String isoDateTime) {
-        LocalDateTime ldt = LocalDateTime.parse(isoDateTime);
-        return ldt.toLocalDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
+    private String getDate(LocalDateTime dateTime) {
+        return DATE_FORMAT.format(dateTime);
     }
 
     /**
-     * Extrahiert die Uhrzeit aus einem ISO-Zeitstempel.
+     * Formatiert die Uhrzeit eines Zeitpunkts.
      *
-     * @param isoDateTime ISO-Zeitstempel
+     * @param dateTime Zeitpunkt
      * @return Uhrzeit im Format "HH:mm"
      */
-    private String getTime(String isoDateTime) {
-        LocalDateTime ldt = LocalDateTime.parse(isoDateTime);
-        return ldt.toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm"));
+    private String getTime(LocalDateTime dateTime) {
+        return TIME_FORMAT.format(dateTime);
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.zambou.app.service;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.function.IntSupplier;
+
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+
+/**
+ * Einfärbung ausgewählter Klausuren im Browser anhand einer Auswahl-Bitmap (siehe {@link SelectionMode#CLIENT}).
+ * <p>
+ * Beim Anzeigen des Kalenders wird die Auswahl einmalig als Bitmap übertragen, in der Bit {@code row}
+ * für jede ausgewählte Prüfung gesetzt ist. Die Bits sind nach der Position der Klausur im Katalog
+ * ({@link ExamDB#rowOf(int)}) statt nach der Prüfungs-ID vergeben, damit die Bitmap auch bei
+ * lückenhaften oder sehr großen IDs höchstens ein Bit je Klausur umfasst. Eine Änderung sendet nur
+ * Position, Prüfungs-ID und neuen Zustand; der Browser setzt das Bit und zeichnet nur den betroffenen
+ * Eintrag neu. Einträge werden dafür weder neu erzeugt noch erneut gesendet.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class ClientSelectionRenderer implements SelectionRenderer {
+
+	private final FullCalendar calendar;
+
+	private final ExamDB db;
+
+	ClientSelectionRenderer(FullCalendar calendar, ExamDB db) {
+		this.calendar = calendar;
+		this.db = db;
+	}
+
+	@Override
+	public String backgroundColorScript() {
+		return "((bits => bits !== undefined && (row >> 3) < bits.length && ((bits[row >> 3] >> (row & 7)) & 1) === 1)"
+				+ "(arg.view.calendar.examSelection) ? \"" + SELECTED_COLOR
+				+ "\" : \"" + DEFAULT_COLOR + "\")";
+	}
+
+	@Override
+	public void attached() {
+		BitSet bits = new BitSet(db.getAllExams().size());
+		for (int id : UserSessionService.getUser().getIds()) {
+			int row = db.rowOf(id);
+			if (row != ExamIdIndex.NOT_FOUND) {
+				bits.set(row);
+			}
+		}
+		String encoded = Base64.getEncoder().encodeToString(bits.toByteArray());
+
+		calendar.getElement().executeJs("""
+				const apply = () => {
+				    const calendar = this.calendar;
+				    if (!calendar) {
+				        requestAnimationFrame(apply);
+				        return;
+				    }
+				    const bits = new Uint8Array(($1 + 7) >> 3);
+				    bits.set(Uint8Array.from(atob($0), c => c.charCodeAt(0)));
+				    calendar.examSelection = bits;
+				    calendar.getEvents().forEach(e => e.setExtendedProp("selected", null));
+				};
+				apply();
+				""", encoded, db.getAllExams().size());
+	}
+
+	@Override
+	public IntSupplier selectionChanged(int examId, boolean selected) {
+		int row = db.rowOf(examId);
+		if (row == ExamIdIndex.NOT_FOUND) {
+			return () -> 0;
+		}
+		calendar.getElement().executeJs("""
+				const bits = this.calendar?.examSelection;
+				if (!bits || ($0 >> 3) >= bits.length) {
+				    return;
+				}
+				bits[$0 >> 3] = $2 ? bits[$0 >> 3] | (1 << ($0 & 7)) : bits[$0 >> 3] & ~(1 << ($0 & 7));
+				this.calendar.getEventById("exam-" + $1)?.setExtendedProp("selected", $2);
+				""", row, examId, selected);
+		return () -> String.valueOf(row).length() + String.valueOf(examId).length() + String.valueOf(selected).length();
+	}
+}
@@ -0,0 +1,39 @@
+package com.zambou.app.service;
+
+import java.io.IOException;
+
+/**
+ * Wird ausgelöst, wenn eine Zeile des Klausurplans nicht dem erwarteten CSV-Format entspricht.
+ * <p>
+ * Die Zeilennummer bezieht sich auf die Quelldatei (beginnend bei 1 für die Kopfzeile).
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public class CsvParseException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Zeilennummer der fehlerhaften Zeile */
+	private final int lineNumber;
+
+	/**
+     * Erstellt eine neue Ausnahme für die angegebene Zeile.
+     *
+     * @param lineNumber Zeilennummer der fehlerhaften Zeile
+     * @param message    Beschreibung des Fehlers
+     */
+	public CsvParseException(int lineNumber, String message) {
+		super("Zeile " + lineNumber + ": " + message);
+		this.lineNumber = lineNumber;
+	}
+
+	/**
+     * Gibt die Zeilennummer der fehlerhaften Zeile zurück.
+     *
+     * @return Zeilennummer, beginnend bei 1
+     */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+}
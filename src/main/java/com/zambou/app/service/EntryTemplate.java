@@ -0,0 +1,118 @@
+package com.zambou.app.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+
+import com.zambou.app.model.Exam;
+
+/**
+ * Unveränderliche Vorlage für den Kalendereintrag einer Klausur.
+ * <p>
+ * Titel, Beginn, Ende, Raum und Prüfer werden einmalig je Katalog-Schnappschuss berechnet
+ * und von allen Sitzungen gemeinsam genutzt. Raum und Prüfer werden nur als Position in den
+ * Wörterbüchern {@link ExamDB#getRoomLabels()} und {@link ExamDB#getExaminerLabels()} übertragen,
+ * die der Browser einmal je Ansicht erhält; die Uhrzeiten berechnet er aus Beginn und Ende. Zusätzlich
+ * trägt jeder Eintrag die Position der Klausur im Katalog, über die der Browser die Auswahl-Bitmap
+ * liest. Je Sitzung wird mit {@link #newEntry()} nur noch ein schlanker {@link Entry} erzeugt, der auf dieselben
+ * Werte und dieselbe Map der Zusatzeigenschaften verweist; sitzungsbezogene Darstellung
+ * (z. B. die Markierung ausgewählter Klausuren) wird darauf gesetzt.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public final class EntryTemplate {
+
+    /** Präfix der Eintrags-IDs vor der Klausur-ID */
+    private static final String ENTRY_ID_PREFIX = "exam-";
+
+    private final int examId;
+    private final String entryId;
+    private final String groupId;
+    private final String title;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /** Gemeinsame, unveränderliche Zusatzeigenschaften für das Rendering im Browser */
+    private final Map<String, Object> customProperties;
+
+    private EntryTemplate(Exam ex, int row, int roomCode, int examinerCode) {
+        this.examId = ex.getId();
+        this.entryId = ENTRY_ID_PREFIX + ex.getId();
+        this.groupId = String.valueOf(ex.getId());
+        this.title = ex.getName();
+        this.start = ex.getStart();
+        this.end = start.plusMinutes(Exam.DURATION_MINUTES);
+        this.customProperties = Map.of(
+                "row", row,
+                "room", roomCode,
+                "examiner", examinerCode);
+    }
+
+    /**
+     * Erstellt die Vorlage für eine Klausur.
+     *
+     * @param ex           die Klausur
+     * @param row          Position der Klausur in {@link ExamDB#getAllExams()}
+     * @param roomCode     Position der Raumangabe in {@link ExamDB#getRoomLabels()}
+     * @param examinerCode Position der Prüferangabe in {@link ExamDB#getExaminerLabels()}
+     * @return die Vorlage
+     */
+    static EntryTemplate of(Exam ex, int row, int roomCode, int examinerCode) {
+        return new EntryTemplate(ex, row, roomCode, examinerCode);
+    }
+
+    /**
+     * Ermittelt die Klausur-ID aus einer Eintrags-ID.
+     *
+     * @param entryId ID eines aus einer Vorlage erzeugten Eintrags
+     * @return Prüfungs-ID oder {@code -1}, falls die ID nicht zu einer Vorlage gehört
+     */
+    static int parseExamId(String entryId) {
+        if (entryId == null || !entryId.startsWith(ENTRY_ID_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(entryId.substring(ENTRY_ID_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Erstellt einen neuen Kalendereintrag aus dieser Vorlage.
+     * <p>
+     * Die ID des Eintrags ist aus der Klausur-ID abgeleitet und damit über Sitzungen und
+     * Aktualisierungen hinweg stabil.
+     *
+     * @return neuer {@link Entry} mit den gemeinsamen Werten der Vorlage
+     */
+    public Entry newEntry() {
+        Entry entry = new Entry(entryId);
+        entry.setGroupId(groupId);
+        entry.setTitle(title);
+        entry.setStart(start);
+        entry.setEnd(end);
+        entry.setCustomProperties(customProperties);
+        return entry;
+    }
+
+    /**
+     * Gibt die ID der zugrunde liegenden Klausur zurück.
+     *
+     * @return Prüfungs-ID
+     */
+    public int getExamId() {
+        return examId;
+    }
+
+    /**
+     * Gibt die ID zurück, die alle aus dieser Vorlage erzeugten Einträge tragen.
+     *
+     * @return stabile Eintrags-ID
+     */
+    public String getEntryId() {
+        return entryId;
+    }
+}
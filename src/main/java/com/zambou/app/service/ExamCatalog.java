@@ -0,0 +1,340 @@
+package com.zambou.app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.zambou.app.model.ExamColumns;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import utils.AppConfig;
+
+/**
+ * Der {@code ExamCatalog} stellt den anwendungsweit gemeinsamen Klausurkatalog bereit.
+ * <p>
+ * Die Prüfungsdaten werden beim Start der Anwendung aus der CSV-Quelle gelesen und als
+ * unveränderlicher {@link ExamDB}-Schnappschuss veröffentlicht. Alle Views, Komponenten und das
+ * {@link ICSDownloadServlet} lesen aus diesem Schnappschuss, statt die CSV-Datei bei jedem Aufruf
+ * erneut einzulesen.
+ * <p>
+ * Liegt die Quelle als Datei vor (konfiguriert über {@code klausurplan.csv.path} oder als
+ * entpackte Klassenpfad-Ressource), wird sie per {@link WatchService} überwacht. Bei Änderungen
+ * wird im Hintergrund neu eingelesen und der Schnappschuss atomar ausgetauscht; Leser werden
+ * dabei nie blockiert und sehen nie einen halb geladenen Katalog. Die Unterschiede zum bisherigen Stand
+ * ({@link ExamCatalogDiff}) werden protokolliert.
+ * <p>
+ * Der neue Schnappschuss gilt sofort für das {@link ICSDownloadServlet} und für jede neu geöffnete
+ * Ansicht. Bereits geöffnete Ansichten behalten den Schnappschuss, mit dem sie aufgebaut wurden, bis
+ * die Seite neu geladen wird; sie werden nicht aktiv benachrichtigt.
+ * <p>
+ * Nach jedem erfolgreichen Import wird ein binäres Abbild ({@link ExamSnapshotFile}) geschrieben,
+ * sofern {@code klausurplan.snapshot.path} gesetzt ist. Ein Neustart blendet dieses Abbild ein,
+ * statt die CSV-Quelle erneut zu parsen.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+@Service
+public class ExamCatalog {
+
+	private static final Logger log = LoggerFactory.getLogger(ExamCatalog.class);
+
+	/** Aktuell veröffentlichter, unveränderlicher Schnappschuss des Katalogs */
+	private volatile ExamDB snapshot;
+
+	/** Überwachte CSV-Datei oder {@code null}, falls die Quelle nur im Klassenpfad (JAR) liegt */
+	private final Path sourceFile;
+
+	/** Binäres Abbild des Katalogs für den schnellen Kaltstart oder {@code null}, falls deaktiviert */
+	private final Path snapshotFile;
+
+	private WatchService watchService;
+	private Thread watcherThread;
+
+	/**
+     * Erstellt den Katalog und lädt die Prüfungsdaten.
+     * <p>
+     * Passt ein vorhandenes binäres Abbild zur CSV-Quelle, wird es direkt eingelesen;
+     * andernfalls wird die CSV-Quelle eingelesen und das Abbild neu geschrieben.
+     *
+     * @param csvPath      optionaler Pfad zu einer externen CSV-Datei; leer für die Klassenpfad-Ressource
+     * @param snapshotPath optionaler Pfad des binären Abbilds; leer, um es nicht zu verwenden
+     * @throws RuntimeException falls die CSV-Quelle nicht gelesen werden kann
+     */
+	public ExamCatalog(@Value("${klausurplan.csv.path:}") String csvPath,
+			@Value("${klausurplan.snapshot.path:}") String snapshotPath) {
+		this.sourceFile = resolveSourceFile(csvPath);
+		this.snapshotFile = snapshotPath != null && !snapshotPath.isBlank() ? Path.of(snapshotPath).toAbsolutePath() : null;
+		try {
+			ExamDB db = loadSnapshotFile();
+			if (db == null) {
+				db = load(null);
+				writeSnapshotFile(db);
+			}
+			this.snapshot = db;
+		} catch (IOException e) {
+			throw new RuntimeException("Fehler beim Laden des Klausurkatalogs", e);
+		}
+	}
+
+	/**
+     * Ermittelt die zu überwachende CSV-Datei.
+     *
+     * @param csvPath konfigurierter Pfad oder leerer String
+     * @return Pfad zur CSV-Datei oder {@code null}, falls die Ressource nicht als Datei vorliegt
+     */
+	private static Path resolveSourceFile(String csvPath) {
+		if (csvPath != null && !csvPath.isBlank()) {
+			return Path.of(csvPath).toAbsolutePath();
+		}
+		URL url = ExamCatalog.class.getClassLoader().getResource(AppConfig.EXAM_CSV_RESOURCE);
+		if (url != null && "file".equals(url.getProtocol())) {
+			try {
+				return Path.of(url.toURI());
+			} catch (URISyntaxException e) {
+				log.warn("CSV-Ressource kann nicht als Datei überwacht werden: {}", url);
+			}
+		}
+		return null;
+	}
+
+	/**
+     * Liest die CSV-Quelle streamend ein und erzeugt daraus einen neuen Schnappschuss.
+     * <p>
+     * Die Prüfsumme wird beim Lesen mitberechnet. Hat sich der Inhalt seit dem vorherigen
+     * Schnappschuss nicht geändert und gilt dasselbe Jahr für die Termine, wird dieser unverändert
+     * weiterverwendet.
+     *
+     * @param previous bisheriger Schnappschuss oder {@code null} beim ersten Laden
+     * @return neuer Schnappschuss, oder {@code previous}, falls sich der Inhalt nicht geändert hat
+     * @throws CsvParseException wenn eine Zeile nicht dem erwarteten Format entspricht
+     * @throws IOException       wenn die Quelle nicht gelesen werden kann
+     */
+	private ExamDB load(ExamDB previous) throws IOException {
+		long startNanos = System.nanoTime();
+		int year = ExamCsvParser.currentYear();
+		CRC32 crc = new CRC32();
+		ExamColumns columns;
+		try (InputStream input = openSource();
+				Reader reader = new InputStreamReader(new CheckedInputStream(input, crc), StandardCharsets.UTF_8)) {
+			columns = ExamCsvParser.parse(reader, year);
+		}
+
+		long version = crc.getValue();
+		if (previous != null && previous.getVersion() == version && previous.getYear() == year) {
+			return previous;
+		}
+
+		ExamDB db = new ExamDB(columns, version, year, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+		log.info("Klausurkatalog geladen: {} Klausuren (ca. {} KiB) aus {} in {} ms", columns.size(), columns.estimatedBytes() / 1024,
+				sourceFile != null ? sourceFile : AppConfig.EXAM_CSV_RESOURCE, (System.nanoTime() - startNanos) / 1_000_000);
+		return db;
+	}
+
+	/**
+     * Öffnet die CSV-Quelle als Bytestrom.
+     *
+     * @return Datei- oder Klassenpfad-Strom
+     * @throws IOException wenn die Quelle nicht geöffnet werden kann
+     */
+	private InputStream openSource() throws IOException {
+		return sourceFile != null ? Files.newInputStream(sourceFile) : CSVLoader.openResource(AppConfig.EXAM_CSV_RESOURCE);
+	}
+
+	/**
+     * Blendet das binäre Abbild ein, sofern es vorhanden ist und zur aktuellen CSV-Quelle passt.
+     * <p>
+     * Zur Prüfung wird nur die Prüfsumme der CSV-Quelle berechnet, die Datei wird nicht geparst.
+     * Ein Abbild aus einem anderen Jahr gilt als veraltet, da die Termine darin bereits aufgelöst sind.
+     *
+     * @return Schnappschuss aus dem Abbild oder {@code null}, falls es fehlt, veraltet oder beschädigt ist
+     * @throws IOException wenn die CSV-Quelle nicht gelesen werden kann
+     */
+	private ExamDB loadSnapshotFile() throws IOException {
+		if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+			return null;
+		}
+		long startNanos = System.nanoTime();
+		CRC32 crc = new CRC32();
+		try (InputStream input = new CheckedInputStream(openSource(), crc)) {
+			input.transferTo(OutputStream.nullOutputStream());
+		}
+		try {
+			ExamDB db = ExamSnapshotFile.read(snapshotFile, crc.getValue(), ExamCsvParser.currentYear());
+			log.info("Klausurkatalog aus Abbild {} geladen: {} Klausuren in {} ms", snapshotFile, db.getAllExams().size(),
+					(System.nanoTime() - startNanos) / 1_000_000);
+			return db;
+		} catch (IOException e) {
+			log.warn("Abbild {} wird verworfen, lade CSV-Quelle: {}", snapshotFile, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+     * Schreibt das binäre Abbild des übergebenen Schnappschusses, sofern konfiguriert.
+     * <p>
+     * Fehler werden nur protokolliert; der Katalog bleibt auch ohne Abbild voll funktionsfähig.
+     *
+     * @param db zu speichernder Schnappschuss
+     */
+	private void writeSnapshotFile(ExamDB db) {
+		if (snapshotFile == null) {
+			return;
+		}
+		try {
+			ExamSnapshotFile.write(snapshotFile, db);
+		} catch (IOException e) {
+			log.warn("Abbild {} konnte nicht geschrieben werden: {}", snapshotFile, e.getMessage());
+		}
+	}
+
+	/**
+     * Liest die CSV-Quelle erneut ein und tauscht den Schnappschuss atomar aus.
+     * <p>
+     * Schlägt das Einlesen fehl, ist die Quelle unverändert oder liefert sie keine Klausuren, bleibt
+     * der bisherige Schnappschuss bestehen und es wird {@link ExamCatalogDiff#NONE} zurückgegeben.
+     *
+     * @return die Änderungen gegenüber dem bisherigen Schnappschuss
+     */
+	public synchronized ExamCatalogDiff reload() {
+		ExamDB previous = snapshot;
+		ExamDB current;
+		try {
+			current = load(previous);
+		} catch (IOException e) {
+			log.error("Fehler beim Neuladen des Klausurkatalogs: {}", e.getMessage(), e);
+			return ExamCatalogDiff.NONE;
+		}
+
+		if (current == previous) {
+			return ExamCatalogDiff.NONE;
+		}
+		if (current.getAllExams().isEmpty() && !previous.getAllExams().isEmpty()) {
+			log.warn("Neu geladener Klausurkatalog ist leer, bisheriger Stand bleibt aktiv");
+			return ExamCatalogDiff.NONE;
+		}
+
+		ExamCatalogDiff diff = ExamCatalogDiff.between(previous, current);
+		snapshot = current;
+		log.info("Klausurkatalog aktualisiert: {}", diff);
+		log.info("Filter-Zwischenspeicher des bisherigen Stands verworfen: {}", previous.getFilterCacheStats());
+		writeSnapshotFile(current);
+		return diff;
+	}
+
+	/**
+     * Startet die Überwachung der CSV-Datei, sofern die Quelle als Datei vorliegt.
+     */
+	@PostConstruct
+	void startWatching() {
+		if (sourceFile == null || sourceFile.getParent() == null) {
+			log.info("Klausurkatalog wird aus dem Klassenpfad geladen, automatisches Neuladen ist deaktiviert");
+			return;
+		}
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+			sourceFile.getParent().register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			log.warn("Überwachung von {} nicht möglich: {}", sourceFile, e.getMessage());
+			return;
+		}
+		watcherThread = new Thread(this::watchLoop, "exam-catalog-watcher");
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+		log.info("Überwache {} auf Änderungen", sourceFile);
+	}
+
+	/**
+     * Wartet auf Dateisystem-Ereignisse im Verzeichnis der CSV-Datei und lädt bei Änderungen neu.
+     * <p>
+     * Editoren und Kopiervorgänge erzeugen oft mehrere Ereignisse kurz hintereinander; diese
+     * werden kurz gesammelt, damit nur einmal neu geladen wird. Ein unerwarteter Fehler beim
+     * Neuladen wird protokolliert und beendet die Überwachung nicht.
+     */
+	private void watchLoop() {
+		Path fileName = sourceFile.getFileName();
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.take();
+				boolean affected = false;
+				do {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						affected |= fileName.equals(event.context());
+					}
+					key.reset();
+					Thread.sleep(200);
+				} while ((key = watchService.poll()) != null);
+
+				if (affected) {
+					try {
+						reload();
+					} catch (RuntimeException e) {
+						log.error("Unerwarteter Fehler beim Neuladen von {}", sourceFile, e);
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+     * Beendet die Überwachung der CSV-Datei.
+     *
+     * @throws IOException falls der {@link WatchService} nicht geschlossen werden kann
+     */
+	@PreDestroy
+	void stopWatching() throws IOException {
+		if (watcherThread != null) {
+			watcherThread.interrupt();
+		}
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+
+	/**
+     * Gibt den aktuell veröffentlichten Schnappschuss des Klausurkatalogs zurück.
+     *
+     * @return unveränderliche {@link ExamDB}-Instanz
+     */
+	public ExamDB getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+     * Sucht im aktuellen Schnappschuss nach Klausurnamen und Prüfern (siehe {@link ExamDB#search(String, int)}).
+     *
+     * @param query Suchtext
+     * @param limit maximale Anzahl der Treffer
+     * @return Treffer, bester Treffer zuerst
+     */
+	public List<ExamSearchHit> search(String query, int limit) {
+		return snapshot.search(query, limit);
+	}
+}
@@ -0,0 +1,81 @@
+package com.zambou.app.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.zambou.app.model.Exam;
+
+/**
+ * Beschreibt die Unterschiede zwischen zwei Schnappschüssen des Klausurkatalogs,
+ * ermittelt anhand der Klausur-ID ({@link Exam#getId()}).
+ *
+ * @param added    neu hinzugekommene Klausuren
+ * @param removed  entfernte Klausuren
+ * @param moved    Klausuren mit geändertem Datum oder geänderter Uhrzeit
+ * @param reRoomed Klausuren mit geänderten Räumen
+ * @param changed  Klausuren mit sonstigen Änderungen (Name, Prüfer, Gruppen)
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public record ExamCatalogDiff(List<Exam> added, List<Exam> removed, List<Exam> moved,
+		List<Exam> reRoomed, List<Exam> changed) {
+
+	/** Keine Änderungen, z. B. wenn die Quelle unverändert ist oder nicht eingelesen werden konnte */
+	public static final ExamCatalogDiff NONE = new ExamCatalogDiff(List.of(), List.of(), List.of(), List.of(), List.of());
+
+	/**
+     * Vergleicht zwei Schnappschüsse und ermittelt die Änderungen.
+     * <p>
+     * Eine Klausur, deren Termin und Räume sich gleichzeitig ändern, erscheint sowohl in
+     * {@link #moved()} als auch in {@link #reRoomed()}. Listen enthalten jeweils die neue Fassung,
+     * nur {@link #removed()} enthält die alte.
+     *
+     * @param previous bisheriger Schnappschuss
+     * @param current  neuer Schnappschuss
+     * @return die Unterschiede zwischen beiden Schnappschüssen
+     */
+	public static ExamCatalogDiff between(ExamDB previous, ExamDB current) {
+		Map<Integer, Exam> old = new HashMap<>();
+		previous.getAllExams().forEach(ex -> old.put(ex.getId(), ex));
+
+		List<Exam> added = new ArrayList<>();
+		List<Exam> moved = new ArrayList<>();
+		List<Exam> reRoomed = new ArrayList<>();
+		List<Exam> changed = new ArrayList<>();
+
+		for (Exam ex : current.getAllExams()) {
+			Exam before = old.remove(ex.getId());
+			if (before == null) {
+				added.add(ex);
+			} else if (before != ex && !before.equals(ex)) {
+				boolean isMoved = !Objects.equals(before.getDate(), ex.getDate()) || !Objects.equals(before.getTime(), ex.getTime());
+				boolean isReRoomed = !Objects.equals(before.getRooms(), ex.getRooms());
+				if (isMoved) moved.add(ex);
+				if (isReRoomed) reRoomed.add(ex);
+				if (!isMoved && !isReRoomed) changed.add(ex);
+			}
+		}
+
+		return new ExamCatalogDiff(List.copyOf(added), List.copyOf(old.values()), List.copyOf(moved),
+				List.copyOf(reRoomed), List.copyOf(changed));
+	}
+
+	/**
+     * Prüft, ob sich die beiden verglichenen Schnappschüsse unterscheiden.
+     *
+     * @return {@code true}, wenn keine Klausur hinzugefügt, entfernt oder geändert wurde
+     */
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && moved.isEmpty() && reRoomed.isEmpty() && changed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "ExamCatalogDiff [added=" + added.size() + ", removed=" + removed.size() + ", moved=" + moved.size()
+				+ ", reRoomed=" + reRoomed.size() + ", changed=" + changed.size() + "]";
+	}
+}
@@ -0,0 +1,297 @@
+package com.zambou.app.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.zambou.app.model.Exam;
+import com.zambou.app.model.ExamColumns;
+
+/**
+ * Streamender CSV-Parser für den Klausurplan im Format {@code ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME}.
+ * <p>
+ * Der Parser liest Zeichen für Zeichen aus einem {@link Reader}, legt die Felder einer Zeile direkt
+ * in einer spaltenorientierten {@link ExamColumns}-Ablage ab und kommt ohne Reflection und ohne Zwischenspeicherung ganzer Zeilen aus.
+ * Die Reihenfolge der Spalten ergibt sich aus der Kopfzeile; unbekannte Spalten werden ignoriert.
+ * Felder dürfen in Anführungszeichen stehen ({@code ""} maskiert ein Anführungszeichen),
+ * führende Leerzeichen werden entfernt.
+ * <p>
+ * Datum und Uhrzeit (z. B. {@code "Do., 26.06."} und {@code "10:30"}) werden bereits beim Einlesen
+ * zum Beginn der Klausur im aktuellen Jahr aufgelöst. Fehlerhafte Zeilen führen zu einer
+ * {@link CsvParseException} mit Zeilennummer, statt stillschweigend übersprungen zu werden.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class ExamCsvParser {
+
+	/** Erwartete Spalten in der Reihenfolge der Feldkennungen */
+	private static final String[] COLUMNS = { "ID", "DATUM", "ZEIT", "GRUPPEN", "NAME", "PRUEFER", "RAEUME" };
+
+	private static final int ID = 0, DATE = 1, TIME = 2, GROUPS = 3, NAME = 4, EXAMINER = 5, ROOMS = 6;
+	private static final int IGNORED = -1;
+	private static final int EOF = -1;
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int pos;
+	private int limit;
+
+	/** Aktuelle Zeilennummer in der Quelle */
+	private int line = 1;
+
+	/** Zeichen, das das zuletzt gelesene Feld beendet hat ({@code ','}, {@code '\n'} oder {@link #EOF}) */
+	private int terminator;
+
+	private final StringBuilder field = new StringBuilder(64);
+
+	/** Jahr, in dem die Klausuren stattfinden (die CSV enthält nur Tag und Monat) */
+	private final int year;
+
+	private ExamCsvParser(Reader reader, int year) {
+		this.reader = reader;
+		this.year = year;
+	}
+
+	/**
+     * Gibt das Jahr zurück, dem die Tagesangaben der CSV-Quelle beim Einlesen zugeordnet werden.
+     *
+     * @return das aktuelle Kalenderjahr
+     */
+	static int currentYear() {
+		return LocalDate.now().getYear();
+	}
+
+	/**
+     * Liest alle Klausuren aus dem übergebenen Zeichenstrom.
+     *
+     * @param reader Zeichenstrom mit Kopfzeile und Datenzeilen
+     * @param year   Jahr, dem die Tagesangaben zugeordnet werden (siehe {@link #currentYear()})
+     * @return Ablage der eingelesenen {@link Exam Klausuren} in Dateireihenfolge
+     * @throws CsvParseException bei einer fehlerhaften Zeile
+     * @throws IOException       bei Lesefehlern
+     */
+	static ExamColumns parse(Reader reader, int year) throws IOException {
+		return new ExamCsvParser(reader, year).readAll();
+	}
+
+	private ExamColumns readAll() throws IOException {
+		int[] slots = readHeader();
+		ExamColumns.Builder exams = new ExamColumns.Builder();
+		Map<Integer, Integer> lineById = new HashMap<>();
+
+		while (skipEmptyLines()) {
+			int recordLine = line;
+			String idValue = null, date = "", time = "", groups = "", name = "", examiner = "", rooms = "";
+			int column = 0;
+
+			do {
+				String value = readField();
+				int slot = column < slots.length ? slots[column] : IGNORED;
+				switch (slot) {
+					case ID -> idValue = value;
+					case DATE -> date = value;
+					case TIME -> time = value;
+					case GROUPS -> groups = value;
+					case NAME -> name = value;
+					case EXAMINER -> examiner = value;
+					case ROOMS -> rooms = value;
+					default -> { }
+				}
+				column++;
+			} while (terminator == ',');
+
+			if (column != slots.length) {
+				throw new CsvParseException(recordLine, "Erwartet " + slots.length + " Spalten, gefunden " + column);
+			}
+
+			int id;
+			try {
+				id = Integer.parseInt(idValue.trim());
+			} catch (NumberFormatException e) {
+				throw new CsvParseException(recordLine, "Ungültige ID '" + idValue + "'");
+			}
+			Integer firstLine = lineById.putIfAbsent(id, recordLine);
+			if (firstLine != null) {
+				throw new CsvParseException(recordLine, "ID " + id + " bereits in Zeile " + firstLine + " vergeben");
+			}
+
+			LocalDateTime start = resolveStart(date, time, recordLine);
+			exams.add(id, date, time, groups, name, examiner, rooms, start);
+			endRecord();
+		}
+		return exams.build();
+	}
+
+	/**
+     * Löst Datum und Uhrzeit einer Zeile zum Beginn der Klausur auf.
+     * <p>
+     * Vom Datum wird nur der Teil nach dem Komma betrachtet ({@code "Do., 26.06."} → Tag 26, Monat 6).
+     *
+     * @param date       Datum aus der Spalte {@code DATUM}
+     * @param time       Uhrzeit aus der Spalte {@code ZEIT} im Format {@code HH:mm}
+     * @param recordLine Zeilennummer für Fehlermeldungen
+     * @return Beginn der Klausur
+     * @throws CsvParseException wenn Datum oder Uhrzeit ungültig sind
+     */
+	private LocalDateTime resolveStart(String date, String time, int recordLine) throws CsvParseException {
+		String dayMonth = date.substring(date.lastIndexOf(',') + 1).strip();
+		String clock = time.strip();
+		int dot = dayMonth.indexOf('.');
+		int monthEnd = dayMonth.endsWith(".") ? dayMonth.length() - 1 : dayMonth.length();
+		int colon = clock.indexOf(':');
+		try {
+			int day = Integer.parseInt(dayMonth, 0, dot, 10);
+			int month = Integer.parseInt(dayMonth, dot + 1, monthEnd, 10);
+			int hour = Integer.parseInt(clock, 0, colon, 10);
+			int minute = Integer.parseInt(clock, colon + 1, clock.length(), 10);
+			return LocalDateTime.of(year, month, day, hour, minute);
+		} catch (RuntimeException e) {
+			throw new CsvParseException(recordLine, "Ungültiges Datum '" + date + " " + time + "'");
+		}
+	}
+
+	/**
+     * Liest die Kopfzeile und ordnet jeder Spaltenposition ein Feld zu.
+     *
+     * @return Feldkennung je Spaltenposition, {@link #IGNORED} für unbekannte Spalten
+     * @throws CsvParseException wenn die Kopfzeile fehlt oder eine Pflichtspalte nicht enthält
+     */
+	private int[] readHeader() throws IOException {
+		if (!skipEmptyLines()) {
+			throw new CsvParseException(line, "Kopfzeile fehlt");
+		}
+		int headerLine = line;
+		List<Integer> slots = new ArrayList<>();
+		boolean[] seen = new boolean[COLUMNS.length];
+		do {
+			String name = readField().strip().toUpperCase(Locale.ROOT);
+			if (slots.isEmpty() && name.startsWith("\uFEFF")) {
+				name = name.substring(1);
+			}
+			int slot = Arrays.asList(COLUMNS).indexOf(name);
+			if (slot != IGNORED) {
+				if (seen[slot]) {
+					throw new CsvParseException(headerLine, "Spalte " + name + " ist doppelt vorhanden");
+				}
+				seen[slot] = true;
+			}
+			slots.add(slot);
+		} while (terminator == ',');
+
+		for (int i = 0; i < COLUMNS.length; i++) {
+			if (!seen[i]) {
+				throw new CsvParseException(headerLine, "Spalte " + COLUMNS[i] + " fehlt in der Kopfzeile");
+			}
+		}
+		endRecord();
+		return slots.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+     * Liest ein einzelnes Feld und merkt sich das beendende Zeichen in {@link #terminator}.
+     *
+     * @return Inhalt des Feldes ohne umschließende Anführungszeichen
+     * @throws CsvParseException bei nicht geschlossenen Anführungszeichen
+     */
+	private String readField() throws IOException {
+		field.setLength(0);
+		int c = next();
+		while (c == ' ' || c == '\t') {
+			c = next();
+		}
+
+		if (c == '"') {
+			int startLine = line;
+			while (true) {
+				c = next();
+				if (c == EOF) {
+					throw new CsvParseException(startLine, "Anführungszeichen wird nicht geschlossen");
+				}
+				if (c == '"') {
+					c = next();
+					if (c != '"') {
+						break;
+					}
+				} else if (c == '\n') {
+					line++;
+				}
+				field.append((char) c);
+			}
+			while (c == ' ' || c == '\t') {
+				c = next();
+			}
+			if (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+				throw new CsvParseException(line, "Unerwartetes Zeichen '" + (char) c + "' nach schließendem Anführungszeichen");
+			}
+		} else {
+			while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+				field.append((char) c);
+				c = next();
+			}
+		}
+
+		if (c == '\r') {
+			c = next();
+			if (c != '\n' && c != EOF) {
+				pos--;
+			}
+			c = '\n';
+		}
+		terminator = c;
+		return field.toString();
+	}
+
+	/**
+     * Schließt eine Zeile ab und erhöht den Zeilenzähler.
+     */
+	private void endRecord() {
+		if (terminator == '\n') {
+			line++;
+		}
+	}
+
+	/**
+     * Überspringt leere Zeilen.
+     *
+     * @return {@code true}, wenn noch eine weitere Zeile folgt, {@code false} am Ende der Eingabe
+     */
+	private boolean skipEmptyLines() throws IOException {
+		while (true) {
+			int c = next();
+			if (c == EOF) {
+				return false;
+			}
+			if (c == '\n') {
+				line++;
+			} else if (c != '\r') {
+				pos--;
+				return true;
+			}
+		}
+	}
+
+	/**
+     * Liefert das nächste Zeichen aus dem Puffer und füllt ihn bei Bedarf nach.
+     *
+     * @return nächstes Zeichen oder {@link #EOF}
+     */
+	private int next() throws IOException {
+		if (pos == limit) {
+			limit = reader.read(buffer, 0, buffer.length);
+			pos = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return EOF;
+			}
+		}
+		return buffer[pos++];
+	}
+}
@@ -1,71 +1,188 @@
 package com.zambou.app.service;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.function.Function;
+import java.time.ZoneOffset;
 
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
 import com.zambou.app.model.Event;
 import com.zambou.app.model.Exam;
+import com.zambou.app.model.ExamColumns;
 
 /**
  * Die {@code ExamDB}-Klasse verwaltet eine Sammlung von {@link Exam}-Objekten,
  * die aus einer CSV-Datei geladen werden. Sie bietet Funktionen zur Filterung,
  * Analyse und Konvertierung der Daten in Kalenderereignisse.
+ * <p>
+ * Eine Instanz ist nach dem Laden unveränderlich und kann daher als gemeinsamer
+ * Schnappschuss von allen Sitzungen gleichzeitig gelesen werden (siehe {@link ExamCatalog}).
  * 
  * @author Yvan Zambou
  * @version 1.0
  */
 public class ExamDB {
 	
-	private static final Logger log = LoggerFactory.getLogger(ExamDB.class);
-	private List<Exam> exams;
+	private final ExamColumns columns;
+	
+	private final List<Exam> exams;
+	
+	/** Prüfsumme der CSV-Quelle, aus der dieser Schnappschuss erzeugt wurde */
+	private final long version;
+
+	/** Jahr, dem die Tagesangaben der CSV-Quelle beim Einlesen zugeordnet wurden */
+	private final int year;
+	
+	/** Zeitpunkt, zu dem dieser Schnappschuss geladen wurde */
+	private final Instant loadedAt;
+	
+	/** Positionen in {@link #exams}, aufsteigend nach Beginn sortiert */
+	private final int[] rowsByStart;
+	
+	/** Beginn in Minuten seit der Epoche, in der Reihenfolge von {@link #rowsByStart} */
+	private final long[] sortedStartMinutes;
+	
+	/** Gemeinsame Vorlagen der Kalendereinträge, Position entspricht {@link #exams} */
+	private final List<EntryTemplate> entryTemplates;
+	
+	/** Wörterbücher der Raum- und Prüferangaben, auf deren Positionen die Kalendereinträge verweisen */
+	private final List<String> roomLabels;
+	private final List<String> examinerLabels;
+	
+	/** Index von Prüfungs-ID auf die Position in {@link #exams} */
+	private final ExamIdIndex idIndex;
+	
+	/** Bitmap-Indizes je Filterdimension über die Positionen in {@link #exams} */
+	private final InvertedIndex groupIndex;
+	private final InvertedIndex roomIndex;
+	private final InvertedIndex examinerIndex;
+	private final InvertedIndex nameIndex;
+
+	/** Zwischenspeicher der Filterergebnisse dieses Schnappschusses */
+	private final FilterCache filterCache = new FilterCache();
+
+	/** Beim ersten ICS-Export erzeugte {@code VEVENT}-Abschnitte */
+	private volatile IcsFragments icsFragments;
 	
 	 /**
-     * Erstellt eine neue Instanz der {@code ExamDB} und lädt die Prüfungsdaten
-     * aus der angegebenen CSV-Datei.
+     * Erstellt eine neue, unveränderliche Instanz der {@code ExamDB}.
      *
-     * @param csvPath Pfad zur CSV-Datei mit den Prüfungsdaten
+     * @param columns  spaltenorientierte Ablage der eingelesenen Prüfungen
+     * @param version  Prüfsumme der CSV-Quelle
+     * @param year     Jahr, dem die Tagesangaben der CSV-Quelle zugeordnet wurden
+     * @param loadedAt Ladezeitpunkt des Schnappschusses
      */
-	public ExamDB(String csvPath) {
-		loadExamsFromCsvFile(csvPath);
+	public ExamDB(ExamColumns columns, long version, int year, Instant loadedAt) {
+		this(columns, version, year, loadedAt, null);
 	}
-
+	
 	/**
-     * Liest die CSV-Datei ein und wandelt die Daten in {@link Exam}-Objekte um.
+     * Erstellt eine neue Instanz mit bereits aufgebauten Filter-Indizes, z. B. aus einem {@link ExamSnapshotFile}.
      *
-     * @param csvPath Pfad zur CSV-Datei
+     * @param columns  spaltenorientierte Ablage der Prüfungen
+     * @param version  Prüfsumme der CSV-Quelle
+     * @param year     Jahr, dem die Tagesangaben der CSV-Quelle zugeordnet wurden
+     * @param loadedAt Ladezeitpunkt des Schnappschusses
+     * @param indexes  Index je Filterdimension oder {@code null}, um sie neu aufzubauen
      */
-	private void loadExamsFromCsvFile(String csvPath) {
-		exams = new ArrayList<>();
-		try (Reader reader = new FileReader(csvPath)) {
-			CsvToBean<Exam> bean = new CsvToBeanBuilder<Exam>(reader)
-					.withType(Exam.class)
-					.withIgnoreLeadingWhiteSpace(true)
-					.build();
-			exams = bean.parse();
-		} catch (Exception e) {
-			log.error("Fehler beim Einlesen der CSV-Datei: {}", e.getMessage(), e);
+	ExamDB(ExamColumns columns, long version, int year, Instant loadedAt, Map<Facet, InvertedIndex> indexes) {
+		this.columns = columns;
+		this.exams = columns.getExams();
+		this.version = version;
+		this.year = year;
+		this.loadedAt = loadedAt;
+		this.rowsByStart = IntStream.range(0, this.exams.size())
+				.boxed()
+				.sorted(Comparator.comparingLong(row -> this.exams.get(row).getStartMinute()))
+				.mapToInt(Integer::intValue)
+				.toArray();
+		this.sortedStartMinutes = new long[rowsByStart.length];
+		for (int i = 0; i < rowsByStart.length; i++) {
+			sortedStartMinutes[i] = this.exams.get(rowsByStart[i]).getStartMinute();
+		}
+		this.idIndex = ExamIdIndex.build(this.exams);
+		Map<String, Integer> roomCodes = new HashMap<>();
+		Map<String, Integer> examinerCodes = new HashMap<>();
+		List<EntryTemplate> templates = new ArrayList<>(this.exams.size());
+		for (int row = 0; row < this.exams.size(); row++) {
+			Exam ex = this.exams.get(row);
+			templates.add(EntryTemplate.of(ex, row,
+					roomCodes.computeIfAbsent(ex.getRooms(), value -> roomCodes.size()),
+					examinerCodes.computeIfAbsent(ex.getExaminer(), value -> examinerCodes.size())));
 		}
+		this.entryTemplates = List.copyOf(templates);
+		this.roomLabels = labels(roomCodes);
+		this.examinerLabels = labels(examinerCodes);
+		if (indexes == null) {
+			indexes = new EnumMap<>(Facet.class);
+			indexes.put(Facet.GROUP, InvertedIndex.build(this.exams, Exam::getAllGroupsAsList));
+			indexes.put(Facet.ROOM, InvertedIndex.build(this.exams, Exam::getAllRoomsAsList));
+			indexes.put(Facet.EXAMINER, InvertedIndex.build(this.exams, ex -> List.of(ex.getExaminer().trim())));
+			indexes.put(Facet.NAME, InvertedIndex.build(this.exams, ex -> List.of(ex.getName().trim())));
+		}
+		this.groupIndex = indexes.get(Facet.GROUP);
+		this.roomIndex = indexes.get(Facet.ROOM);
+		this.examinerIndex = indexes.get(Facet.EXAMINER);
+		this.nameIndex = indexes.get(Facet.NAME);
+	}
+
+	/**
+     * Gibt die spaltenorientierte Ablage der Prüfungen zurück.
+     *
+     * @return die zugrunde liegende {@link ExamColumns}-Ablage
+     */
+	ExamColumns getColumns() {
+		return columns;
+	}
+
+	/**
+     * Gibt die Version dieses Schnappschusses zurück.
+     * <p>
+     * Die Version ist die Prüfsumme der CSV-Quelle; gleicher Inhalt ergibt dieselbe Version.
+     *
+     * @return Version des Katalogs
+     */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+     * Gibt das Jahr zurück, dem die Tagesangaben der CSV-Quelle beim Einlesen zugeordnet wurden.
+     * <p>
+     * Die CSV-Quelle enthält nur Tag und Monat; derselbe Inhalt ergibt in einem anderen Jahr
+     * andere Termine.
+     *
+     * @return Jahr der Termine
+     */
+	public int getYear() {
+		return year;
+	}
+	
+	/**
+     * Gibt den Zeitpunkt zurück, zu dem dieser Schnappschuss geladen wurde.
+     *
+     * @return Ladezeitpunkt
+     */
+	public Instant getLoadedAt() {
+		return loadedAt;
 	}
 	
 	/**
      * Gibt alle geladenen Prüfungen zurück.
      *
-     * @return Liste aller {@link Exam}-Objekte
+     * @return unveränderliche Liste aller {@link Exam}-Objekte
      */
 	public List<Exam> getAllExams() {
 		return exams;
@@ -73,6 +190,9 @@ public class ExamDB {
 	
 	/**
      * Filtert die Prüfungen anhand der angegebenen Kriterien.
+     * <p>
+     * Gruppen und Räume müssen exakt übereinstimmen, bei Prüfer und Prüfungsname genügt
+     * ein enthaltener Teiltext. Die Auswertung erfolgt über die Bitmap-Indizes.
      *
      * @param group     Name der Gruppe (optional)
      * @param examiner  Name des Prüfers (optional)
@@ -81,69 +201,409 @@ public class ExamDB {
      * @return Liste der passenden {@link Exam}-Objekte
      */
 	public List<Exam> getFilteredExams(String group, String examiner, String room, String examName) {
-		return exams.stream()
-				.filter(exam ->
-							(group == null || group.isEmpty() || exam.getAllGroupsAsList().contains(group)) &&
-							(examiner == null || examiner.isEmpty() || exam.getExaminer().contains(examiner)) &&
-							(room == null || room.isEmpty() || exam.getAllRoomsAsList().contains(room)) &&
-							(examName == null || examName.isEmpty() || exam.getName().contains(examName))
-						)
+		BitSet rows = matchingRows(group, examiner, room, examName);
+		return rows.stream()
+				.mapToObj(exams::get)
 				.collect(Collectors.toList());
 	}
 	
 	/**
-     * Extrahiert eindeutige Werte aus den Prüfungsdaten mithilfe eines Mappers.
+     * Zählt die Prüfungen, die den angegebenen Kriterien entsprechen, ohne sie zu materialisieren.
      *
-     * @param mapper Funktion, die eine Liste von Strings aus einem {@link Exam} extrahiert
-     * @return sortierte Menge eindeutiger Werte
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return Anzahl der passenden Prüfungen
      */
-	private Set<String> extractUniqueValues(Function<Exam, List<String>> mapper) {
-		return exams.stream()
-				.flatMap(e -> mapper.apply(e).stream())
-				.map(String::trim)
-				.collect(Collectors.toCollection(TreeSet::new));
+	public int countFilteredExams(String group, String examiner, String room, String examName) {
+		return filter(group, examiner, room, examName).count();
+	}
+	
+	/**
+     * Ermittelt die Positionen der passenden Prüfungen als Schnittmenge der Index-Bitmaps.
+     * <p>
+     * Das Ergebnis stammt aus dem {@link FilterCache} und wird von allen Sitzungen gemeinsam genutzt;
+     * Aufrufer dürfen die Bitmap nur lesen oder kopieren.
+     *
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return nicht zu verändernde Bitmap mit den Positionen der Treffer in {@link #getAllExams()}
+     */
+	BitSet matchingRows(String group, String examiner, String room, String examName) {
+		return filter(group, examiner, room, examName).rows();
+	}
+
+	/**
+     * Liefert das Ergebnis eines Filters aus dem Zwischenspeicher oder berechnet es.
+     *
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return das gemeinsam genutzte Filterergebnis
+     */
+	private FilterCache.Result filter(String group, String examiner, String room, String examName) {
+		return filterCache.get(FilterCache.Key.of(group, examiner, room, examName), key -> {
+			BitSet rows = matchingRows(key.group(), key.examiner(), key.room(), key.examName(), null);
+			return new FilterCache.Result(rows, firstDate(rows));
+		});
+	}
+
+	/**
+     * Gibt die Zugriffszahlen des Filter-Zwischenspeichers dieses Schnappschusses zurück.
+     *
+     * @return Treffer, Fehltreffer, Verdrängungen und aktuelle Größe
+     */
+	public FilterCacheStats getFilterCacheStats() {
+		return filterCache.stats();
+	}
+	
+	/**
+     * Ermittelt die Positionen der passenden Prüfungen und lässt dabei das Kriterium einer
+     * Filterdimension unberücksichtigt.
+     *
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @param ignored   nicht zu berücksichtigende Filterdimension oder {@code null}
+     * @return neue Bitmap mit den Positionen der Treffer, {@code null} falls kein Kriterium wirkt
+     */
+	private BitSet matchingRows(String group, String examiner, String room, String examName, Facet ignored) {
+		BitSet rows = null;
+		if (isSet(group) && ignored != Facet.GROUP) {
+			rows = intersect(rows, groupIndex.exact(group));
+		}
+		if (isSet(room) && ignored != Facet.ROOM) {
+			rows = intersect(rows, roomIndex.exact(room));
+		}
+		if (isSet(examiner) && ignored != Facet.EXAMINER) {
+			rows = intersect(rows, examinerIndex.containing(examiner));
+		}
+		if (isSet(examName) && ignored != Facet.NAME) {
+			rows = intersect(rows, nameIndex.containing(examName));
+		}
+		if (rows == null && ignored == null) {
+			rows = new BitSet(exams.size());
+			rows.set(0, exams.size());
+		}
+		return rows;
+	}
+	
+	/**
+     * Bildet die Schnittmenge zweier Bitmaps.
+     *
+     * @param rows      bisherige Treffer oder {@code null}, falls noch kein Kriterium angewendet wurde
+     * @param candidate Treffer des nächsten Kriteriums
+     * @return die Schnittmenge
+     */
+	private static BitSet intersect(BitSet rows, BitSet candidate) {
+		if (rows == null) {
+			return candidate;
+		}
+		rows.and(candidate);
+		return rows;
+	}
+	
+	/**
+     * Liefert die Prüfungen, die sich mit dem Zeitraum überschneiden, aufsteigend nach Beginn.
+     *
+     * @param from Beginn des Zeitraums (einschließlich)
+     * @param to   Ende des Zeitraums (ausschließlich)
+     * @return passende Prüfungen
+     */
+	public List<Exam> getExamsBetween(LocalDateTime from, LocalDateTime to) {
+		return examsBetween(from, to, null);
+	}
+	
+	/**
+     * Liefert die Prüfungen im Zeitraum, die zusätzlich den Filterkriterien entsprechen
+     * (siehe {@link #getFilteredExams(String, String, String, String)}).
+     *
+     * @param from      Beginn des Zeitraums (einschließlich)
+     * @param to        Ende des Zeitraums (ausschließlich)
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return passende Prüfungen, aufsteigend nach Beginn
+     */
+	public List<Exam> getExamsBetween(LocalDateTime from, LocalDateTime to, String group, String examiner, String room,
+			String examName) {
+		return examsBetween(from, to, matchingRows(group, examiner, room, examName));
+	}
+	
+	/**
+     * Gibt den Tag der frühesten Prüfung zurück.
+     *
+     * @return erster Prüfungstag oder {@code null}, falls der Katalog leer ist
+     */
+	public LocalDate firstDate() {
+		return firstDate(null);
+	}
+	
+	/**
+     * Gibt den Tag der spätesten Prüfung zurück.
+     *
+     * @return letzter Prüfungstag oder {@code null}, falls der Katalog leer ist
+     */
+	public LocalDate lastDate() {
+		return lastDate(null);
+	}
+	
+	/**
+     * Gibt den Tag der frühesten Prüfung zurück, die den Filterkriterien entspricht.
+     *
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return erster passender Prüfungstag oder {@code null}, falls keine Prüfung passt
+     */
+	public LocalDate firstDate(String group, String examiner, String room, String examName) {
+		return filter(group, examiner, room, examName).firstDate();
+	}
+	
+	/**
+     * Gibt den Tag der spätesten Prüfung zurück, die den Filterkriterien entspricht.
+     *
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return letzter passender Prüfungstag oder {@code null}, falls keine Prüfung passt
+     */
+	public LocalDate lastDate(String group, String examiner, String room, String examName) {
+		return lastDate(matchingRows(group, examiner, room, examName));
+	}
+	
+	/**
+     * Ermittelt den Tag der frühesten Prüfung unter den zulässigen Positionen.
+     *
+     * @param rows zulässige Positionen oder {@code null} für alle
+     * @return Prüfungstag oder {@code null}, falls keine Position zulässig ist
+     */
+	LocalDate firstDate(BitSet rows) {
+		for (int i = 0; i < rowsByStart.length; i++) {
+			if (rows == null || rows.get(rowsByStart[i])) {
+				return exams.get(rowsByStart[i]).getStartDate();
+			}
+		}
+		return null;
+	}
+	
+	/**
+     * Ermittelt den Tag der spätesten Prüfung unter den zulässigen Positionen.
+     *
+     * @param rows zulässige Positionen oder {@code null} für alle
+     * @return Prüfungstag oder {@code null}, falls keine Position zulässig ist
+     */
+	LocalDate lastDate(BitSet rows) {
+		for (int i = rowsByStart.length - 1; i >= 0; i--) {
+			if (rows == null || rows.get(rowsByStart[i])) {
+				return exams.get(rowsByStart[i]).getStartDate();
+			}
+		}
+		return null;
+	}
+	
+	/**
+     * Liefert die Prüfungen, die sich mit dem Zeitraum überschneiden, aufsteigend nach Beginn.
+     * <p>
+     * Die Suche erfolgt per Binärsuche über die nach Beginn sortierten Prüfungen. Da alle Prüfungen
+     * gleich lang dauern ({@link Exam#DURATION_MINUTES}), genügt der Beginn als Schlüssel: Eine Prüfung
+     * überschneidet den Zeitraum genau dann, wenn sie vor {@code to} und nach {@code from} minus Dauer
+     * beginnt. Der Aufwand beträgt damit O(log n + k) für k Prüfungen im Zeitraum.
+     *
+     * @param from Beginn des Zeitraums (einschließlich) oder {@code null} für unbeschränkt
+     * @param to   Ende des Zeitraums (ausschließlich) oder {@code null} für unbeschränkt
+     * @param rows zulässige Positionen, z. B. aus {@link #matchingRows}, oder {@code null} für alle
+     * @return passende Prüfungen
+     */
+	List<Exam> examsBetween(LocalDateTime from, LocalDateTime to, BitSet rows) {
+		int lo = from == null ? 0 : lowerBound(toMinute(from) - Exam.DURATION_MINUTES + 1);
+		int hi = to == null ? rowsByStart.length : lowerBound(toMinute(to));
+		List<Exam> result = new ArrayList<>(Math.max(0, hi - lo));
+		for (int i = lo; i < hi; i++) {
+			int row = rowsByStart[i];
+			if (rows == null || rows.get(row)) {
+				result.add(exams.get(row));
+			}
+		}
+		return result;
+	}
+	
+	/**
+     * Ermittelt die erste Position in {@link #sortedStartMinutes}, deren Beginn nicht vor {@code minute} liegt.
+     *
+     * @param minute Zeitpunkt in Minuten seit der Epoche
+     * @return Position zwischen {@code 0} und der Anzahl der Prüfungen
+     */
+	private int lowerBound(long minute) {
+		int lo = 0;
+		int hi = sortedStartMinutes.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sortedStartMinutes[mid] < minute) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+	
+	/**
+     * Rechnet einen Zeitpunkt in Minuten seit der Epoche um (lokale Zeit, wie {@link Exam#getStartMinute()}).
+     *
+     * @param dateTime Zeitpunkt
+     * @return Minuten seit der Epoche
+     */
+	private static long toMinute(LocalDateTime dateTime) {
+		return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+	}
+	
+	/**
+     * Prüft, ob ein Filterkriterium gesetzt ist.
+     *
+     * @param criterion das Kriterium
+     * @return {@code true}, wenn das Kriterium weder {@code null} noch leer ist
+     */
+	private static boolean isSet(String criterion) {
+		return criterion != null && !criterion.isEmpty();
+	}
+	
+	/**
+     * Gibt den Index einer Filterdimension zurück.
+     *
+     * @param facet die Filterdimension
+     * @return zugehöriger {@link InvertedIndex}
+     */
+	InvertedIndex indexOf(Facet facet) {
+		return switch (facet) {
+			case GROUP -> groupIndex;
+			case EXAMINER -> examinerIndex;
+			case ROOM -> roomIndex;
+			case NAME -> nameIndex;
+		};
+	}
+	
+	/**
+     * Zählt je Wert einer Filterdimension die Prüfungen, die zu den übrigen Kriterien passen.
+     * <p>
+     * Das Kriterium der betrachteten Dimension selbst bleibt dabei unberücksichtigt, sodass die
+     * Zahlen angeben, wie viele Treffer bei Auswahl des jeweiligen Wertes übrig blieben. Werte mit
+     * der Anzahl {@code 0} sind mit der aktuellen Auswahl nicht vereinbar. Ohne weitere Kriterien
+     * werden die beim Laden berechneten Gesamtzahlen verwendet. Einmal gezählte Werte hält der
+     * {@link FilterCache} zusammen mit dem übrigen Filterergebnis.
+     *
+     * @param facet     die betrachtete Filterdimension
+     * @param group     Name der Gruppe (optional)
+     * @param examiner  Name des Prüfers (optional)
+     * @param room      Raumbezeichnung (optional)
+     * @param examName  Name der Prüfung (optional)
+     * @return Trefferzahlen je Wert der Dimension
+     */
+	public FacetCounts countFacetValues(Facet facet, String group, String examiner, String room, String examName) {
+		return filter(group, examiner, room, examName).facetCounts().computeIfAbsent(facet, f -> {
+			InvertedIndex index = indexOf(f);
+			BitSet rows = matchingRows(group, examiner, room, examName, f);
+			return new FacetCounts(index.values(), index.ordinals(), index.countWithin(rows));
+		});
+	}
+	
+	/**
+     * Gibt alle Werte einer Filterdimension in alphabetischer Reihenfolge zurück.
+     *
+     * @param facet die Filterdimension
+     * @return unveränderliche, einmalig beim Laden berechnete Liste
+     */
+	public List<String> getFacetValues(Facet facet) {
+		return indexOf(facet).values();
+	}
+
+	/**
+     * Sucht Werte einer Filterdimension per Teiltext- und fehlertoleranter Suche.
+     * <p>
+     * Groß- und Kleinschreibung sowie Umlautschreibweisen werden nicht unterschieden. Werte, die den
+     * Suchtext enthalten, stehen vorn, danach ähnliche Werte. Ein leerer Suchtext liefert alle Werte
+     * alphabetisch.
+     *
+     * @param facet die Filterdimension
+     * @param query Suchtext
+     * @return passende Werte, bester Treffer zuerst
+     */
+	public List<String> searchFacetValues(Facet facet, String query) {
+		InvertedIndex index = indexOf(facet);
+		List<String> result = new ArrayList<>();
+		for (TrigramIndex.Match match : index.search(query)) {
+			result.add(index.values().get(match.ordinal()));
+		}
+		return result;
+	}
+	
+	/**
+     * Sucht in Klausurnamen und Prüfern nach dem Suchtext.
+     * <p>
+     * Die Treffer beider Dimensionen werden gemeinsam nach Relevanz sortiert: vollständige
+     * Teiltext-Treffer zuerst, danach nach Ähnlichkeit und Anzahl der Klausuren.
+     *
+     * @param query Suchtext
+     * @param limit maximale Anzahl der Treffer
+     * @return Treffer, bester Treffer zuerst
+     */
+	public List<ExamSearchHit> search(String query, int limit) {
+		List<ExamSearchHit> hits = new ArrayList<>();
+		for (Facet facet : List.of(Facet.NAME, Facet.EXAMINER)) {
+			InvertedIndex index = indexOf(facet);
+			for (TrigramIndex.Match match : index.search(query)) {
+				hits.add(new ExamSearchHit(facet, index.values().get(match.ordinal()), index.totalCount(match.ordinal()),
+						match.score(), match.contained()));
+			}
+		}
+		hits.sort(Comparator.comparing(ExamSearchHit::contains).reversed()
+				.thenComparing(Comparator.comparingDouble(ExamSearchHit::score).reversed())
+				.thenComparing(Comparator.comparingInt(ExamSearchHit::exams).reversed()));
+		return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
 	}
 
 	/**
      * Gibt alle vorkommenden Gruppen zurück.
      *
-     * @return sortierte Menge aller Gruppen
+     * @return unveränderliche sortierte Menge aller Gruppen
      */
 	public Set<String> getAllGroups() {
-		return extractUniqueValues(Exam::getAllGroupsAsList);
+		return groupIndex.valueSet();
 	}
 
 	/**
      * Gibt alle vorkommenden Räume zurück.
      *
-     * @return sortierte Menge aller Räume
+     * @return unveränderliche sortierte Menge aller Räume
      */
 	public Set<String> getAllRooms() {
-		return extractUniqueValues(Exam::getAllRoomsAsList);
+		return roomIndex.valueSet();
 	}
 	
 	/**
      * Gibt alle vorkommenden Prüfungsnamen zurück.
      *
-     * @return sortierte Menge aller Prüfungsnamen
+     * @return unveränderliche sortierte Menge aller Prüfungsnamen
      */
 	public Set<String> getAllNames() {
-	    return exams.stream()
-	                .map(Exam::getName)
-	                .map(String::trim)
-	                .collect(Collectors.toCollection(TreeSet::new));
+	    return nameIndex.valueSet();
 	}
 
 	/**
      * Gibt alle vorkommenden Prüfer zurück.
      *
-     * @return sortierte Menge aller Prüfer
+     * @return unveränderliche sortierte Menge aller Prüfer
      */
 	public Set<String> getAllExaminers() {
-	    return exams.stream()
-	                .map(Exam::getExaminer)
-	                .map(String::trim)
-	                .collect(Collectors.toCollection(TreeSet::new));
+	    return examinerIndex.valueSet();
 	}
 	
 	 /**
@@ -153,97 +613,167 @@ public class ExamDB {
      * @return Liste von {@link Event}-Objekten für die Kalenderdarstellung
      */
 	public List<Event> getExamsAsEvents(List<Exam> exams) {
-		List<Event> events = new ArrayList<>();
-		
-		DateTimeFormatter inputFormat = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-		DateTimeFormatter outputFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-		int currentYear = LocalDate.now().getYear();
-		
-		for(Exam ex: exams) {
-			String cleanedDate = ex.getDate().split(",")[1].trim() + currentYear; // von "Do., 26.06" wird nur "26.06" weiter betrachtet
-			String dateTime = cleanedDate + " " + ex.getTime();
-			try {
-				LocalDateTime start = LocalDateTime.parse(dateTime, inputFormat);
-				LocalDateTime end = start.plusMinutes(150);			// Startzeit + 150 Minuten (gesamte Klausurdauer)
-				
-				events.add(new Event(
-						ex.getId(),
-						ex.getName(),
-						start.format(outputFormat),
-						end.format(outputFormat),
-						ex.getGroups(),
-						ex.getExaminer(),
-						ex.getRooms()
-				));
-			} catch (DateTimeParseException e) {
-				log.error("Ungültiges Datum: {}", dateTime);
-			}
+		List<Event> events = new ArrayList<>(exams.size());
+		for (Exam ex : exams) {
+			events.add(toEvent(ex));
 		}
 		return events;
 	}
 
 	/**
-     * Gibt alle Prüfungstermine als sortierte {@link LocalDate}-Liste zurück.
+     * Wandelt eine Prüfung in ein Kalenderereignis um.
+     * <p>
+     * Beginn und Ende wurden bereits beim Einlesen aufgelöst und werden unverändert übernommen.
      *
-     * @return Liste aller Prüfungstage in aufsteigender Reihenfolge
+     * @param ex die Prüfung
+     * @return das zugehörige {@link Event}
      */
-	public List<LocalDate> getSortedDatesAsLocalDate() {
-	    return getExamsAsEvents(exams).stream()
-	        .map(ev -> LocalDateTime.parse(ev.getStart()))
-	        .sorted()
-	        .map(LocalDateTime::toLocalDate)
-	        .toList();
+	private static Event toEvent(Exam ex) {
+		return new Event(
+				ex.getId(),
+				ex.getName(),
+				ex.getStart(),
+				ex.getEnd(),
+				ex.getGroups(),
+				ex.getExaminer(),
+				ex.getRooms()
+		);
 	}
-	
+
 	/**
      * Sucht eine Prüfung anhand ihrer ID.
      *
      * @param id eindeutige Prüfungs-ID
      * @return {@link Exam}-Objekt oder {@code null}, falls nicht gefunden
      */
-	public Exam getExamById(Integer id) {
-	    return exams.stream()
-	                .filter(ex -> ex.getId() == id)
-	                .findFirst()
-	                .orElse(null);
+	public Exam getExamById(int id) {
+	    int row = idIndex.rowOf(id);
+	    return row != ExamIdIndex.NOT_FOUND ? exams.get(row) : null;
 	}
 	
 	/**
-     * Sucht ein Kalenderereignis anhand der Prüfungs-ID.
+     * Ermittelt die Position einer Prüfung in {@link #getAllExams()}.
+     * <p>
+     * Die Positionen sind dicht ({@code 0} bis Anzahl der Klausuren minus eins), auch wenn die
+     * Prüfungs-IDs lückenhaft oder sehr groß sind.
      *
      * @param id eindeutige Prüfungs-ID
-     * @return {@link Event}-Objekt oder {@code null}, falls nicht gefunden oder fehlerhaftes Datum
-     */
-	public Event getEventById(Integer id) {
-	    DateTimeFormatter inputFormat = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-	    DateTimeFormatter outputFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-	    int currentYear = LocalDate.now().getYear();
-
-	    for (Exam ex : exams) {
-	        if (ex.getId() == id) {
-	            String cleanedDate = ex.getDate().split(",")[1].trim() + currentYear;
-	            String dateTime = cleanedDate + " " + ex.getTime();
-	            try {
-	                LocalDateTime start = LocalDateTime.parse(dateTime, inputFormat);
-	                LocalDateTime end = start.plusMinutes(150);
-
-	                return new Event(
-	                        ex.getId(),
-	                        ex.getName(),
-	                        start.format(outputFormat),
-	                        end.format(outputFormat),
-	                        ex.getGroups(),
-	                        ex.getExaminer(),
-	                        ex.getRooms()
-	                );
-	            } catch (DateTimeParseException e) {
-	                log.error("Ungültiges Datum: {}", dateTime);
-	                return null;
-	            }
+     * @return Position oder {@link ExamIdIndex#NOT_FOUND}, falls nicht gefunden
+     */
+	int rowOf(int id) {
+	    return idIndex.rowOf(id);
+	}
+	
+	/**
+     * Löst mehrere Prüfungs-IDs in einem Durchgang auf.
+     * <p>
+     * Unbekannte IDs (z. B. nach einem Neuladen entfernte Klausuren) werden übersprungen.
+     *
+     * @param ids Prüfungs-IDs
+     * @return Liste der gefundenen {@link Exam}-Objekte in der Reihenfolge der IDs
+     */
+	public List<Exam> getExamsByIds(int[] ids) {
+	    List<Exam> result = new ArrayList<>(ids.length);
+	    for (int id : ids) {
+	        int row = idIndex.rowOf(id);
+	        if (row != ExamIdIndex.NOT_FOUND) {
+	            result.add(exams.get(row));
 	        }
 	    }
+	    return result;
+	}
 
-	    return null;
+	/**
+     * Stellt eine ICS-Datei mit den angegebenen Prüfungen aus den vorab erzeugten
+     * {@code VEVENT}-Abschnitten zusammen (siehe {@link IcsFragments}).
+     * <p>
+     * Unbekannte IDs werden übersprungen. Die Abschnitte werden beim ersten Aufruf je
+     * Schnappschuss einmalig formatiert.
+     *
+     * @param ids Prüfungs-IDs
+     * @return Puffer der Datei in Schreibreihenfolge; die Inhalte dürfen nur gelesen werden
+     */
+	ByteBuffer[] icsFeed(int[] ids) {
+	    IcsFragments fragments = icsFragments;
+	    if (fragments == null) {
+	        synchronized (this) {
+	            fragments = icsFragments;
+	            if (fragments == null) {
+	                fragments = IcsFragments.build(exams, loadedAt);
+	                icsFragments = fragments;
+	            }
+	        }
+	    }
+	    int[] rows = new int[ids.length];
+	    int count = 0;
+	    for (int id : ids) {
+	        int row = idIndex.rowOf(id);
+	        if (row != ExamIdIndex.NOT_FOUND) {
+	            rows[count++] = row;
+	        }
+	    }
+	    return fragments.feed(count == rows.length ? rows : Arrays.copyOf(rows, count));
+	}
+	
+	/**
+     * Gibt die Vorlagen der Kalendereinträge aller Prüfungen zurück.
+     *
+     * @return unveränderliche Liste in der Reihenfolge von {@link #getAllExams()}
+     */
+	public List<EntryTemplate> getEntryTemplates() {
+	    return entryTemplates;
+	}
+	
+	/**
+     * Gibt das Wörterbuch der Raumangaben zurück, auf das die Kalendereinträge per Position verweisen.
+     *
+     * @return unveränderliche Liste der Raumangaben
+     */
+	public List<String> getRoomLabels() {
+	    return roomLabels;
+	}
+	
+	/**
+     * Gibt das Wörterbuch der Prüferangaben zurück, auf das die Kalendereinträge per Position verweisen.
+     *
+     * @return unveränderliche Liste der Prüferangaben
+     */
+	public List<String> getExaminerLabels() {
+	    return examinerLabels;
+	}
+	
+	/**
+     * Ordnet die Werte eines Wörterbuchs nach ihren Codes.
+     *
+     * @param codes Code je Wert, fortlaufend ab {@code 0}
+     * @return unveränderliche Liste, Position entspricht dem Code
+     */
+	private static List<String> labels(Map<String, Integer> codes) {
+		String[] labels = new String[codes.size()];
+		codes.forEach((value, code) -> labels[code] = value);
+		return List.of(labels);
+	}
+	
+	/**
+     * Gibt die Vorlage des Kalendereintrags einer Prüfung zurück.
+     *
+     * @param id eindeutige Prüfungs-ID
+     * @return gemeinsame {@link EntryTemplate} oder {@code null}, falls nicht gefunden
+     */
+	public EntryTemplate getEntryTemplate(int id) {
+	    int row = idIndex.rowOf(id);
+	    return row != ExamIdIndex.NOT_FOUND ? entryTemplates.get(row) : null;
+	}
+	
+	/**
+     * Sucht ein Kalenderereignis anhand der Prüfungs-ID.
+     *
+     * @param id eindeutige Prüfungs-ID
+     * @return {@link Event}-Objekt oder {@code null}, falls nicht gefunden
+     */
+	public Event getEventById(int id) {
+	    Exam ex = getExamById(id);
+	    return ex != null ? toEvent(ex) : null;
 	}
 
-}
\ No newline at end of file
+}
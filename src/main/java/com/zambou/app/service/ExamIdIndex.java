@@ -0,0 +1,123 @@
+package com.zambou.app.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.zambou.app.model.Exam;
+
+/**
+ * Index von Klausur-IDs auf die Position der Klausur in der Katalogliste.
+ * <p>
+ * Sind die IDs kompakt verteilt (wie im Klausurplan üblich), wird ein dichtes Array verwendet,
+ * dessen Index direkt die ID ist. Andernfalls kommt eine Hashtabelle mit offener Adressierung
+ * und linearer Sondierung zum Einsatz. In beiden Fällen arbeitet der Index ausschließlich mit
+ * primitiven {@code int}-Werten, ohne Boxing.
+ * <p>
+ * Der Index wird einmalig beim Erstellen eines Katalog-Schnappschusses aufgebaut und danach
+ * nicht mehr verändert.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class ExamIdIndex {
+
+	/** Rückgabewert für unbekannte IDs */
+	static final int NOT_FOUND = -1;
+
+	/** Leerer Platz in der Hashtabelle (Positionen sind nie negativ) */
+	private static final int EMPTY = -1;
+
+	/** Dichtes Array: {@code dense[id - minId]} ist die Position oder {@link #EMPTY}; {@code null} im Hash-Modus */
+	private final int[] dense;
+	private final int minId;
+
+	/** Hash-Modus: Schlüssel und zugehörige Positionen, Länge ist eine Zweierpotenz */
+	private final int[] keys;
+	private final int[] rows;
+	private final int mask;
+
+	private ExamIdIndex(int[] dense, int minId, int[] keys, int[] rows) {
+		this.dense = dense;
+		this.minId = minId;
+		this.keys = keys;
+		this.rows = rows;
+		this.mask = keys != null ? keys.length - 1 : 0;
+	}
+
+	/**
+     * Baut den Index über die übergebenen Klausuren auf.
+     *
+     * @param exams Klausuren in Katalogreihenfolge
+     * @return der aufgebaute Index
+     */
+	static ExamIdIndex build(List<Exam> exams) {
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (Exam ex : exams) {
+			min = Math.min(min, ex.getId());
+			max = Math.max(max, ex.getId());
+		}
+
+		if (exams.isEmpty()) {
+			return new ExamIdIndex(new int[0], 0, null, null);
+		}
+
+		long span = (long) max - min + 1;
+		if (span <= 4L * exams.size() + 64) {
+			int[] dense = new int[(int) span];
+			Arrays.fill(dense, EMPTY);
+			for (int row = 0; row < exams.size(); row++) {
+				dense[exams.get(row).getId() - min] = row;
+			}
+			return new ExamIdIndex(dense, min, null, null);
+		}
+
+		int capacity = Integer.highestOneBit(Math.max(4, exams.size() * 2 - 1)) << 1;
+		int[] keys = new int[capacity];
+		int[] rows = new int[capacity];
+		Arrays.fill(rows, EMPTY);
+		int mask = capacity - 1;
+		for (int row = 0; row < exams.size(); row++) {
+			int id = exams.get(row).getId();
+			int slot = mix(id) & mask;
+			while (rows[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = id;
+			rows[slot] = row;
+		}
+		return new ExamIdIndex(null, 0, keys, rows);
+	}
+
+	/**
+     * Liefert die Position der Klausur mit der angegebenen ID.
+     *
+     * @param id Klausur-ID
+     * @return Position in der Katalogliste oder {@link #NOT_FOUND}
+     */
+	int rowOf(int id) {
+		if (dense != null) {
+			long offset = (long) id - minId;
+			return offset >= 0 && offset < dense.length ? dense[(int) offset] : NOT_FOUND;
+		}
+		int slot = mix(id) & mask;
+		while (rows[slot] != EMPTY) {
+			if (keys[slot] == id) {
+				return rows[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+     * Verteilt aufeinanderfolgende IDs gleichmäßig über die Hashtabelle.
+     *
+     * @param id Klausur-ID
+     * @return gestreuter Hashwert
+     */
+	private static int mix(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
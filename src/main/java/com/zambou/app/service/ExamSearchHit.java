@@ -0,0 +1,15 @@
+package com.zambou.app.service;
+
+/**
+ * Ein Treffer der Klausursuche über Namen und Prüfer (siehe {@link ExamDB#search(String, int)}).
+ *
+ * @param facet    Filterdimension, in der der Wert gefunden wurde ({@link Facet#NAME} oder {@link Facet#EXAMINER})
+ * @param value    gefundener Wert, z. B. ein Klausurname
+ * @param exams    Anzahl der Klausuren mit diesem Wert
+ * @param score    Ähnlichkeit zur Anfrage zwischen 0 und 1
+ * @param contains {@code true}, wenn der Wert die Anfrage vollständig enthält
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public record ExamSearchHit(Facet facet, String value, int exams, double score, boolean contains) {}
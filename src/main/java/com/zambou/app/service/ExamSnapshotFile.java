@@ -0,0 +1,173 @@
+package com.zambou.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.zambou.app.model.ExamColumns;
+
+/**
+ * Binäres Abbild eines Katalog-Schnappschusses für einen schnellen Kaltstart.
+ * <p>
+ * Die Datei enthält Wörterbuch, Spalten und Filter-Indizes einer {@link ExamDB} und wird nach jedem
+ * erfolgreichen CSV-Import geschrieben. Beim nächsten Start wird sie in einem Zug in den Speicher
+ * gelesen und blockweise ausgewertet, statt die CSV-Quelle erneut zu verarbeiten. Die Datei wird
+ * nicht eingeblendet, damit sie danach sofort wieder ersetzt werden kann (unter Windows schlägt das
+ * Umbenennen auf eine eingeblendete Datei fehl).
+ * <p>
+ * Aufbau (Big Endian):
+ * <pre>
+ * int  MAGIC            "KPS1"
+ * int  FORMAT_VERSION
+ * long sourceVersion    Prüfsumme der CSV-Quelle
+ * int  year             Jahr, dem die Tagesangaben der CSV-Quelle zugeordnet wurden
+ * long loadedAt         Importzeitpunkt in Millisekunden seit der Epoche
+ * int  payloadLength
+ * long payloadChecksum  CRC32 über die Nutzdaten
+ * ...  Nutzdaten: {@link ExamColumns}, danach ein {@link InvertedIndex} je {@link Facet}
+ * </pre>
+ * Ein Abbild mit anderem Format, anderer Quellprüfsumme, anderem Jahr oder falscher Nutzdaten-Prüfsumme
+ * wird verworfen.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class ExamSnapshotFile {
+
+	/** Kennung am Dateianfang */
+	private static final int MAGIC = 0x4B505331;
+
+	/** Version des Dateiformats; bei jeder Formatänderung zu erhöhen */
+	private static final int FORMAT_VERSION = 2;
+
+	/** Größe des Dateikopfes in Bytes */
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8 + 4 + 8;
+
+	private ExamSnapshotFile() {}
+
+	/**
+     * Schreibt das Abbild eines Schnappschusses.
+     * <p>
+     * Die Datei wird zunächst neben dem Ziel angelegt und dann atomar umbenannt, damit ein
+     * gleichzeitiger Start nie eine halb geschriebene Datei sieht.
+     *
+     * @param file Zieldatei
+     * @param db   zu speichernder Schnappschuss
+     * @throws IOException bei Schreibfehlern
+     */
+	static void write(Path file, ExamDB db) throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(64 * 1024);
+		try (DataOutputStream out = new DataOutputStream(payload)) {
+			db.getColumns().writeTo(out);
+			for (Facet facet : Facet.values()) {
+				db.indexOf(facet).writeTo(out);
+			}
+		}
+		byte[] bytes = payload.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+				.putInt(MAGIC)
+				.putInt(FORMAT_VERSION)
+				.putLong(db.getVersion())
+				.putInt(db.getYear())
+				.putLong(db.getLoadedAt().toEpochMilli())
+				.putInt(bytes.length)
+				.putLong(crc.getValue())
+				.flip();
+
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] buffers = { header, ByteBuffer.wrap(bytes) };
+			while (buffers[1].hasRemaining()) {
+				channel.write(buffers);
+			}
+			channel.force(false);
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+     * Liest das Abbild, sofern es zur angegebenen CSV-Quelle passt.
+     *
+     * @param file          Abbild-Datei
+     * @param sourceVersion Prüfsumme der aktuellen CSV-Quelle
+     * @param year          Jahr, dem die Tagesangaben aktuell zugeordnet werden
+     * @return der gelesene Schnappschuss
+     * @throws IOException wenn die Datei fehlt, veraltet oder beschädigt ist
+     */
+	static ExamDB read(Path file, long sourceVersion, int year) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES) {
+				throw new IOException("Abbild ist unvollständig");
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Abbild ist zu groß");
+			}
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// weiterlesen, bis der Puffer gefüllt ist
+			}
+			buffer.flip();
+		}
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Keine Katalog-Abbild-Datei");
+		}
+		int format = buffer.getInt();
+		if (format != FORMAT_VERSION) {
+			throw new IOException("Abbild hat Format " + format + ", erwartet " + FORMAT_VERSION);
+		}
+		if (buffer.getLong() != sourceVersion) {
+			throw new IOException("Abbild ist veraltet, die CSV-Quelle wurde geändert");
+		}
+		int snapshotYear = buffer.getInt();
+		if (snapshotYear != year) {
+			throw new IOException("Abbild enthält Termine für " + snapshotYear + ", erwartet " + year);
+		}
+		Instant loadedAt = Instant.ofEpochMilli(buffer.getLong());
+		int length = buffer.getInt();
+		long checksum = buffer.getLong();
+		if (length < 0 || length != buffer.remaining()) {
+			throw new IOException("Abbild ist unvollständig");
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate());
+		if (crc.getValue() != checksum) {
+			throw new IOException("Prüfsumme des Abbilds stimmt nicht");
+		}
+
+		try {
+			ExamColumns columns = ExamColumns.readFrom(buffer);
+			Map<Facet, InvertedIndex> indexes = new EnumMap<>(Facet.class);
+			for (Facet facet : Facet.values()) {
+				indexes.put(facet, InvertedIndex.readFrom(buffer, columns.size()));
+			}
+			if (buffer.hasRemaining()) {
+				throw new IOException("Abbild enthält unerwartete Daten");
+			}
+			return new ExamDB(columns, sourceVersion, year, loadedAt, indexes);
+		} catch (RuntimeException e) {
+			throw new IOException("Abbild ist beschädigt", e);
+		}
+	}
+}
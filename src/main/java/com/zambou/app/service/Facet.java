@@ -0,0 +1,22 @@
+package com.zambou.app.service;
+
+/**
+ * Filterdimensionen des Klausurkatalogs, nach denen im {@code FilterForm} eingeschränkt werden kann.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public enum Facet {
+
+	/** Studierendengruppe */
+	GROUP,
+
+	/** Prüfer bzw. Dozent */
+	EXAMINER,
+
+	/** Raum */
+	ROOM,
+
+	/** Klausurname */
+	NAME
+}
@@ -0,0 +1,47 @@
+package com.zambou.app.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trefferzahlen je Wert einer Filterdimension für eine bestimmte Filterauswahl.
+ * <p>
+ * Wörterbuch und Ordnungszahlen stammen aus dem Katalog-Schnappschuss und werden von allen
+ * Instanzen gemeinsam genutzt; je Instanz kommt nur das Array der Zählerstände hinzu.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public final class FacetCounts {
+
+	private final List<String> values;
+	private final Map<String, Integer> ordinals;
+	private final int[] counts;
+
+	FacetCounts(List<String> values, Map<String, Integer> ordinals, int[] counts) {
+		this.values = values;
+		this.ordinals = ordinals;
+		this.counts = counts;
+	}
+
+	/**
+     * Gibt alle Werte der Filterdimension in alphabetischer Reihenfolge zurück,
+     * unabhängig davon, ob sie zur aktuellen Auswahl passen.
+     *
+     * @return unveränderliche Liste aller Werte
+     */
+	public List<String> getValues() {
+		return values;
+	}
+
+	/**
+     * Gibt die Anzahl der Klausuren zurück, die bei zusätzlicher Auswahl dieses Wertes übrig blieben.
+     *
+     * @param value Wert der Filterdimension
+     * @return Trefferzahl, {@code 0} für unbekannte Werte
+     */
+	public int count(String value) {
+		Integer ordinal = ordinals.get(value);
+		return ordinal != null ? counts[ordinal] : 0;
+	}
+}
@@ -0,0 +1,129 @@
+package com.zambou.app.service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Begrenzter Zwischenspeicher für Filterergebnisse eines Katalog-Schnappschusses.
+ * <p>
+ * Schlüssel ist das normalisierte Tupel der vier Filterkriterien, Wert das Ergebnis der
+ * Bitmap-Schnittmengen samt Trefferzahl, frühestem Prüfungstag und den bei Bedarf ergänzten
+ * Trefferzahlen je Filterdimension. Da viele Sitzungen dieselben Gruppen und Räume wählen, werden
+ * diese Ergebnisse so nur einmal berechnet. Bei Überschreiten der Kapazität wird der am längsten
+ * nicht mehr verwendete Eintrag verdrängt.
+ * <p>
+ * Jede {@link ExamDB} besitzt einen eigenen Zwischenspeicher. Mit einem neuen Schnappschuss
+ * beginnt daher automatisch ein leerer Zwischenspeicher; veraltete Ergebnisse werden nie ausgeliefert.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class FilterCache {
+
+	/** Maximale Anzahl gespeicherter Filterkombinationen */
+	static final int CAPACITY = 256;
+
+	private final Map<Key, Result> results = new LinkedHashMap<>(CAPACITY * 4 / 3 + 1, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+			if (size() > CAPACITY) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+     * Liefert das gespeicherte Ergebnis eines Filters oder berechnet es.
+     * <p>
+     * Die Berechnung erfolgt außerhalb der Sperre; fragen zwei Sitzungen gleichzeitig denselben
+     * neuen Filter ab, wird er schlimmstenfalls doppelt berechnet.
+     *
+     * @param key     normalisierte Filterkriterien
+     * @param compute Berechnung des Ergebnisses bei einem Fehltreffer
+     * @return das Ergebnis
+     */
+	Result get(Key key, Function<Key, Result> compute) {
+		synchronized (results) {
+			Result cached = results.get(key);
+			if (cached != null) {
+				hits.increment();
+				return cached;
+			}
+		}
+		misses.increment();
+		Result computed = compute.apply(key);
+		synchronized (results) {
+			Result raced = results.putIfAbsent(key, computed);
+			return raced != null ? raced : computed;
+		}
+	}
+
+	/**
+     * Gibt die bisherigen Zugriffszahlen zurück.
+     *
+     * @return Treffer, Fehltreffer, Verdrängungen und aktuelle Größe
+     */
+	FilterCacheStats stats() {
+		int size;
+		synchronized (results) {
+			size = results.size();
+		}
+		return new FilterCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+	}
+
+	/**
+     * Normalisierte Filterkriterien; leere Kriterien werden als {@code null} geführt.
+     *
+     * @param group    Name der Gruppe oder {@code null}
+     * @param examiner Name des Prüfers oder {@code null}
+     * @param room     Raumbezeichnung oder {@code null}
+     * @param examName Name der Prüfung oder {@code null}
+     */
+	record Key(String group, String examiner, String room, String examName) {
+
+		/**
+	     * Erstellt einen Schlüssel aus den Kriterien, wie sie die Filterfelder liefern.
+	     *
+	     * @param group    Name der Gruppe (optional)
+	     * @param examiner Name des Prüfers (optional)
+	     * @param room     Raumbezeichnung (optional)
+	     * @param examName Name der Prüfung (optional)
+	     * @return der normalisierte Schlüssel
+	     */
+		static Key of(String group, String examiner, String room, String examName) {
+			return new Key(normalize(group), normalize(examiner), normalize(room), normalize(examName));
+		}
+
+		private static String normalize(String criterion) {
+			return criterion == null || criterion.isEmpty() ? null : criterion;
+		}
+	}
+
+	/**
+     * Ergebnis eines Filters.
+     * <p>
+     * Die Bitmap wird von allen Sitzungen gemeinsam genutzt und darf nicht verändert werden.
+     *
+     * @param rows        Positionen der Treffer
+     * @param count       Anzahl der Treffer
+     * @param firstDate   Tag der frühesten passenden Prüfung oder {@code null}
+     * @param facetCounts bereits berechnete Trefferzahlen je Filterdimension
+     */
+	record Result(BitSet rows, int count, LocalDate firstDate, Map<Facet, FacetCounts> facetCounts) {
+
+		Result(BitSet rows, LocalDate firstDate) {
+			this(rows, rows.cardinality(), firstDate, new ConcurrentHashMap<>());
+		}
+	}
+}
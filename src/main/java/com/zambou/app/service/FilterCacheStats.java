@@ -0,0 +1,32 @@
+package com.zambou.app.service;
+
+/**
+ * Zugriffszahlen des Filter-Zwischenspeichers eines Katalog-Schnappschusses
+ * (siehe {@link ExamDB#getFilterCacheStats()}).
+ *
+ * @param hits      Anzahl der aus dem Zwischenspeicher beantworteten Filter
+ * @param misses    Anzahl der neu berechneten Filter
+ * @param evictions Anzahl der wegen der Kapazitätsgrenze verdrängten Filter
+ * @param size      Anzahl der aktuell gespeicherten Filter
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public record FilterCacheStats(long hits, long misses, long evictions, int size) {
+
+	/**
+     * Gibt den Anteil der Treffer an allen Zugriffen zurück.
+     *
+     * @return Trefferquote zwischen 0 und 1, {@code 0} ohne Zugriffe
+     */
+	public double hitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d Treffer, %d Fehltreffer (%.1f %%), %d verdrängt, %d gespeichert",
+				hits, misses, hitRate() * 100, evictions, size);
+	}
+}
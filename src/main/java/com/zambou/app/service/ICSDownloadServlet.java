@@ -1,55 +1,364 @@
 package com.zambou.app.service;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.eclipse.store.afs.sql.types.SqlConnector;
-import org.eclipse.store.afs.sql.types.SqlFileSystem;
-import org.eclipse.store.afs.sql.types.SqlProviderSqlite;
-import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
-import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
-import org.sqlite.SQLiteDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import com.zambou.app.model.Exam;
-import com.zambou.app.model.User;
-import com.zambou.app.storage.Root;
+import com.zambou.app.storage.UserSelection;
+import com.zambou.app.storage.UserStorageManager;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import utils.AppConfig;
 
 /**
  * Servlet zur Bereitstellung von ICS-Kalenderdateien für einzelne Nutzer.
  * <p>
- * Die ICS-Datei enthält alle Prüfungen eines Nutzers, identifiziert über eine UUID im Pfad.
+ * Die ICS-Datei enthält alle Prüfungen eines Nutzers, identifiziert über eine UUID im Pfad. Sie wird
+ * aus den vorab erzeugten {@code VEVENT}-Abschnitten des Schnappschusses ({@link IcsFragments})
+ * zusammengestellt und ohne Zwischenpuffer geschrieben.
  * Beispielhafte Anfrage: {@code GET /ics/ee9abb52-56f9-46a2-88e4-d955fb89181e.ics}
+ * <p>
+ * Nutzer und Prüfungen stammen aus dem gemeinsamen {@link UserStorageManager} und {@link ExamCatalog},
+ * die einmalig beim Start geöffnet werden. Je Anfrage fallen nur die Suche des Nutzers und das
+ * Erzeugen der Datei an.
+ * <p>
+ * Jede Antwort trägt ein starkes {@code ETag} aus Formatversion der ICS-Ausgabe, Katalogversion,
+ * Ladezeitpunkt des Katalogs (der als {@code DTSTAMP} in die Datei eingeht) und Version der Auswahl sowie
+ * {@code Last-Modified}. Kalender-Apps, die mit {@code If-None-Match} oder {@code If-Modified-Since}
+ * nachfragen, erhalten bei unverändertem Stand {@code 304 Not Modified}, ohne dass die Datei erzeugt
+ * wird. Die Anfragen werden je Ergebnis im Zähler {@code klausurplan.ics.requests} erfasst, der
+ * Anteil der {@code 304}-Antworten in {@code klausurplan.ics.not-modified.ratio}.
+ * <p>
+ * Anfragen werden über die asynchrone Servlet-Schnittstelle an virtuelle Threads übergeben, damit
+ * Abrufspitzen (z. B. zur vollen Stunde) keine Threads des Webservers binden, die die Oberfläche
+ * benötigt. Höchstens {@code maxConcurrent} Anfragen werden gleichzeitig bearbeitet, bis zu
+ * {@code maxQueued} weitere warten. Darüber hinaus wird sofort mit {@code 503 Service Unavailable}
+ * und {@code Retry-After} geantwortet. Die Anzahl wartender und laufender Anfragen wird in
+ * {@code klausurplan.ics.queued} und {@code klausurplan.ics.active} veröffentlicht, abgewiesene
+ * Anfragen im Zähler {@code klausurplan.ics.requests} mit dem Ergebnis {@code rejected}.
+ * <p>
+ * Jede Anfrage muss innerhalb einer festen Höchstdauer ({@code timeoutMillis}) einen freien Platz
+ * erhalten. Andernfalls erhält der Client {@code 503 Service Unavailable} mit {@code Retry-After}
+ * (Ergebnis {@code timeout}). Eine laufende Bearbeitung wird nicht abgebrochen; ihren Platz gibt erst
+ * der virtuelle Thread frei, wenn er fertig ist. Unerwartete Fehler werden protokolliert und, solange
+ * die Antwort noch nicht übertragen wird, mit {@code 500 Internal Server Error} beantwortet.
  * 
  * @author Yvan Zambou
- * @version 1.0
+ * @version 1.1
  */
 public class ICSDownloadServlet extends HttpServlet {
 
 	private static final long serialVersionUID = 1L;
 
+	private static final Logger log = LoggerFactory.getLogger(ICSDownloadServlet.class);
+
+	/** Gemeinsamer, anwendungsweiter Klausurkatalog */
+	private final transient ExamCatalog catalog;
+
+	/** Gemeinsamer, anwendungsweiter Nutzerspeicher */
+	private final transient UserStorageManager storageManager;
+
+	/** Zähler der ausgelieferten, unveränderten und nicht gefundenen Abonnements */
+	private final transient Counter served;
+	private final transient Counter notModified;
+	private final transient Counter notFound;
+	private final transient Counter rejected;
+	private final transient Counter timedOut;
+
+	/** Virtuelle Threads, auf denen die Anfragen bearbeitet werden */
+	private final transient ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/** Plätze für laufende und wartende Anfragen; ohne freien Platz wird die Anfrage abgewiesen */
+	private final transient Semaphore admitted;
+
+	/** Plätze für gleichzeitig laufende Anfragen */
+	private final transient Semaphore running;
+
+	/** Empfohlene Wartezeit für abgewiesene Clients in Sekunden */
+	private final int retryAfterSeconds;
+
+	/** Höchstdauer des Wartens auf einen freien Platz in Millisekunden */
+	private final long timeoutMillis;
+
+	/**
+     * Erstellt das Servlet mit Zugriff auf den gemeinsamen Klausurkatalog und Nutzerspeicher.
+     *
+     * @param catalog           der gemeinsame Klausurkatalog
+     * @param storageManager    der gemeinsame Nutzerspeicher
+     * @param meterRegistry     Registrierung für die Anfragezähler
+     * @param maxConcurrent     Anzahl gleichzeitig bearbeiteter Anfragen
+     * @param maxQueued         Anzahl zusätzlich wartender Anfragen
+     * @param retryAfterSeconds Wartezeit in Sekunden, die abgewiesenen Clients empfohlen wird
+     * @param timeoutMillis     Höchstdauer des Wartens auf einen freien Platz in Millisekunden
+     */
+	public ICSDownloadServlet(ExamCatalog catalog, UserStorageManager storageManager, MeterRegistry meterRegistry,
+			int maxConcurrent, int maxQueued, int retryAfterSeconds, long timeoutMillis) {
+		if (maxConcurrent < 1 || maxQueued < 0) {
+			throw new IllegalArgumentException("Ungültige Grenzen für ICS-Anfragen: " + maxConcurrent + "/" + maxQueued);
+		}
+		if (timeoutMillis < 1) {
+			throw new IllegalArgumentException("Ungültige Höchstdauer für ICS-Anfragen: " + timeoutMillis);
+		}
+		this.catalog = catalog;
+		this.storageManager = storageManager;
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.timeoutMillis = timeoutMillis;
+		this.admitted = new Semaphore(maxConcurrent + maxQueued);
+		this.running = new Semaphore(maxConcurrent);
+		this.served = requestCounter(meterRegistry, "ok");
+		this.notModified = requestCounter(meterRegistry, "not-modified");
+		this.notFound = requestCounter(meterRegistry, "not-found");
+		this.rejected = requestCounter(meterRegistry, "rejected");
+		this.timedOut = requestCounter(meterRegistry, "timeout");
+		Gauge.builder("klausurplan.ics.not-modified.ratio", this, ICSDownloadServlet::notModifiedRatio)
+				.description("Anteil der mit 304 beantworteten ICS-Abrufe")
+				.register(meterRegistry);
+		Gauge.builder("klausurplan.ics.queued", running, Semaphore::getQueueLength)
+				.description("Auf einen freien Platz wartende ICS-Abrufe")
+				.register(meterRegistry);
+		Gauge.builder("klausurplan.ics.active", running, permits -> maxConcurrent - permits.availablePermits())
+				.description("Gleichzeitig bearbeitete ICS-Abrufe")
+				.register(meterRegistry);
+	}
+
+	/**
+     * Registriert den Anfragezähler für ein Ergebnis.
+     *
+     * @param meterRegistry Registrierung der Zähler
+     * @param result        Ergebnis der Anfrage
+     * @return der Zähler
+     */
+	private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("klausurplan.ics.requests")
+				.description("Abrufe der ICS-Abonnements")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	/**
+     * Gibt den Anteil der mit {@code 304 Not Modified} beantworteten Abrufe zurück.
+     *
+     * @return Anteil zwischen 0 und 1, {@code 0} ohne Abrufe
+     */
+	private double notModifiedRatio() {
+		double total = served.count() + notModified.count();
+		return total == 0 ? 0 : notModified.count() / total;
+	}
+
+	/**
+     * Nimmt eine ICS-Anfrage an und übergibt sie an einen virtuellen Thread.
+     * <p>
+     * Sind bereits alle Plätze für laufende und wartende Anfragen belegt, wird ohne weitere Arbeit
+     * mit {@code 503 Service Unavailable} und {@code Retry-After} geantwortet.
+     *
+     * @param request  die HTTP-Anfrage
+     * @param response die HTTP-Antwort
+     * @throws IOException falls die Abweisung nicht gesendet werden kann
+     */
+	@Override
+	public void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (!admitted.tryAcquire()) {
+			reject(response);
+			return;
+		}
+
+		AsyncContext async = request.startAsync();
+		// Die Höchstdauer setzt der virtuelle Thread durch, damit nur er die Antwort abschließt
+		async.setTimeout(0);
+		AsyncRequest task = new AsyncRequest(async);
+		async.addListener(task);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			reject(response);
+			task.complete();
+		}
+	}
+
+	/**
+     * Weist eine Anfrage mit {@code 503 Service Unavailable} und {@code Retry-After} ab.
+     *
+     * @param response die HTTP-Antwort
+     * @throws IOException falls die Antwort nicht gesendet werden kann
+     */
+	private void reject(HttpServletResponse response) throws IOException {
+		rejected.increment();
+		response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+		response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Zu viele gleichzeitige Abrufe.");
+	}
+
+	/**
+     * Bearbeitung einer angenommenen Anfrage auf einem virtuellen Thread.
+     * <p>
+     * Nur der virtuelle Thread schreibt die Antwort, gibt den Platz in der Warteschlange frei und
+     * beendet den asynchronen Kontext, und zwar erst, wenn er die Bearbeitung verlassen hat. Damit
+     * begrenzt {@code admitted} stets die tatsächlich laufende Arbeit. Die Höchstdauer wird beim
+     * Warten auf einen freien Platz durchgesetzt; der Webserver selbst bricht die Anfrage nicht ab.
+     * Meldet er einen Verbindungsfehler, wird die Anfrage nur als abgebrochen markiert und ein noch
+     * wartender virtueller Thread unterbrochen, der dann nichts mehr schreibt.
+     */
+	private final class AsyncRequest implements Runnable, AsyncListener {
+
+		private final AsyncContext async;
+
+		/** Zeitpunkt in {@link System#nanoTime()}, bis zu dem die Bearbeitung beginnen muss */
+		private final long deadline;
+
+		/** Gesetzt, sobald der Webserver die Verbindung als fehlerhaft gemeldet hat */
+		private final AtomicBoolean aborted = new AtomicBoolean();
+
+		/** Virtueller Thread, der die Anfrage gerade bearbeitet, oder {@code null} */
+		private volatile Thread worker;
+
+		AsyncRequest(AsyncContext async) {
+			this.async = async;
+			this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		}
+
+		@Override
+		public void run() {
+			worker = Thread.currentThread();
+			HttpServletResponse response = (HttpServletResponse) async.getResponse();
+			try {
+				if (!running.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+					timeout(response);
+					return;
+				}
+				try {
+					if (!aborted.get()) {
+						serve((HttpServletRequest) async.getRequest(), response);
+					}
+				} finally {
+					running.release();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail(response, "ICS-Abruf unterbrochen", null);
+			} catch (IOException e) {
+				log.debug("ICS-Abruf abgebrochen: {}", e.getMessage());
+			} catch (RuntimeException e) {
+				fail(response, "ICS-Abruf fehlgeschlagen", e);
+			} finally {
+				worker = null;
+				complete();
+			}
+		}
+
+		/**
+         * Beantwortet eine Anfrage, die innerhalb der Höchstdauer keinen freien Platz erhalten hat,
+         * mit {@code 503 Service Unavailable} und {@code Retry-After}.
+         *
+         * @param response die HTTP-Antwort
+         * @throws IOException falls die Antwort nicht gesendet werden kann
+         */
+		private void timeout(HttpServletResponse response) throws IOException {
+			timedOut.increment();
+			if (!aborted.get() && !response.isCommitted()) {
+				response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+				response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Zeitüberschreitung beim Abruf.");
+			}
+		}
+
+		/**
+         * Beantwortet eine fehlgeschlagene Bearbeitung mit {@code 500 Internal Server Error}, sofern die
+         * Verbindung noch besteht und noch nichts übertragen wurde.
+         *
+         * @param response die HTTP-Antwort
+         * @param message  Meldung für das Protokoll
+         * @param cause    Ursache oder {@code null}
+         */
+		private void fail(HttpServletResponse response, String message, Exception cause) {
+			if (aborted.get()) {
+				return;
+			}
+			log.error(message, cause);
+			try {
+				if (!response.isCommitted()) {
+					response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Kalender konnte nicht erstellt werden.");
+				}
+			} catch (IOException | IllegalStateException e) {
+				log.debug("Fehlerantwort konnte nicht gesendet werden: {}", e.getMessage());
+			}
+		}
+
+		/**
+         * Gibt den Platz der Anfrage frei und beendet den asynchronen Kontext, sofern der Webserver
+         * ihn nicht schon nach einem Verbindungsfehler beendet hat.
+         */
+		void complete() {
+			admitted.release();
+			if (!aborted.get()) {
+				try {
+					async.complete();
+				} catch (IllegalStateException e) {
+					log.debug("ICS-Abruf bereits beendet: {}", e.getMessage());
+				}
+			}
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			aborted.set(true);
+			Thread thread = worker;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			// Der Webserver bricht nicht ab (Timeout 0), die Höchstdauer setzt run() durch
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			// Platz und Kontext gibt allein run() frei
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// keine erneute asynchrone Bearbeitung
+		}
+	}
+
+	/**
+     * Beendet die Bearbeitung weiterer Anfragen.
+     */
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
 	/**
      * Verarbeitet eine eingehende HTTP-Anfrage zur Generierung und Auslieferung einer ICS-Datei.
      * <p>
-     * Die Methode prüft, ob der Pfad korrekt ist und eine gültige UUID enthält. Anschließend wird
-     * die zugehörige ICS-Datei generiert und als Antwort zurückgegeben.
+     * Die Methode prüft, ob der Pfad korrekt ist und eine gültige UUID enthält. Hat der Client den
+     * aktuellen Stand bereits, wird {@code 304 Not Modified} gesendet, andernfalls wird die zugehörige
+     * ICS-Datei generiert und als Antwort zurückgegeben.
      *
      * @param request  die HTTP-Anfrage mit Pfadinformationen
      * @param response die HTTP-Antwort, in die die ICS-Datei geschrieben wird
      * @throws IOException bei Fehlern beim Schreiben oder Laden der Daten
      */
-	public void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+	private void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
 		String pathInfo = request.getPathInfo();	// z.B.  "/ee9abb52-56f9-46a2-88e4-d955fb89181e.ics"
 		
         if (pathInfo == null || !pathInfo.endsWith(".ics")) {
@@ -60,16 +369,33 @@ public class ICSDownloadServlet extends HttpServlet {
         String uuid = pathInfo.substring(pathInfo.lastIndexOf("/") + 1, pathInfo.length() - 4);
         
         if (isValidUUID(uuid)) {
-        	byte[] icsData = generateIcsFor(UUID.fromString(uuid));
-
-            if (icsData == null) {
+        	UserSelection selection = storageManager.getSelection(UUID.fromString(uuid));
+            if (selection == null) {
+            	notFound.increment();
                 response.sendError(HttpServletResponse.SC_NOT_FOUND, "Nutzer nicht gefunden.");
                 return;
             }
 
+            ExamDB db = catalog.getSnapshot();
+            String etag = etag(db, selection);
+            Instant lastModified = db.getLoadedAt().isAfter(selection.modifiedAt()) ? db.getLoadedAt() : selection.modifiedAt();
+            lastModified = lastModified.truncatedTo(ChronoUnit.SECONDS);
+
+            response.setHeader("ETag", etag);
+            response.setDateHeader("Last-Modified", lastModified.toEpochMilli());
+            response.setHeader("Cache-Control", "private, no-cache");
+            if (isNotModified(request, etag, lastModified)) {
+            	notModified.increment();
+            	response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            	return;
+            }
+
+            ByteBuffer[] icsData = db.icsFeed(selection.examIds());
+            served.increment();
             response.setContentType("text/calendar; charset=UTF-8");
             response.setHeader("Content-Disposition", "inline; filename=\""+ uuid +".ics\"");
-            response.getOutputStream().write(icsData);
+            response.setContentLengthLong(IcsFragments.length(icsData));
+            IcsFragments.write(icsData, response.getOutputStream());
         	
 		} else {
 			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Ungültige UUID.");
@@ -78,84 +404,57 @@ public class ICSDownloadServlet extends HttpServlet {
 	}
 
 	/**
-     * Generiert eine ICS-Datei für den Nutzer mit der angegebenen UUID.
+     * Bildet das {@code ETag} eines Abonnements.
      * <p>
-     * Die Methode lädt die Nutzer- und Prüfungsdaten, wandelt die relevanten Prüfungen
-     * in ICS-kompatible VEVENT-Einträge um und gibt die Datei als Byte-Array zurück.
+     * Es umfasst alle Eingaben, von denen die Bytes der Datei abhängen: das Ausgabeformat
+     * ({@link IcsFragments#FORMAT_VERSION}), Inhalt der CSV-Quelle, Ladezeitpunkt des Schnappschusses
+     * ({@code DTSTAMP}) und ausgewählte Klausuren. Wird dieselbe CSV-Quelle erneut eingelesen oder die
+     * Formatierung geändert, ändert sich daher auch das {@code ETag}.
      *
-     * @param uuid die eindeutige Nutzerkennung
-     * @return Byte-Array der ICS-Datei oder {@code null}, falls kein Nutzer gefunden wurde
-     * @throws IOException bei Fehlern beim Laden der CSV oder Datenbank
+     * @param db        aktueller Katalog-Schnappschuss
+     * @param selection gespeicherte Auswahl des Nutzers
+     * @return das {@code ETag} in Anführungszeichen
      */
-	private byte[] generateIcsFor(UUID uuid) throws IOException {
-		
-		DateTimeFormatter utcStamp = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
-        DateTimeFormatter inputFormat = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-        DateTimeFormatter outputFormat = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
-        int currentYear = LocalDate.now().getYear();
-        
-        SQLiteDataSource dataSource = new SQLiteDataSource();
-        dataSource.setUrl(AppConfig.SQLITE_DB_URL);
-
-        SqlFileSystem sqlFileSystem = SqlFileSystem.New(SqlConnector.Caching(SqlProviderSqlite.New(dataSource)));
-
-        EmbeddedStorageManager storageManager = EmbeddedStorage.start(sqlFileSystem.ensureDirectoryPath(AppConfig.VIRTUAL_DIRECTORY));
-
-        Root root = (Root) storageManager.root();
-        if (root == null) {
-            root = new Root();
-            storageManager.setRoot(root);
-            storageManager.storeRoot();
-        }
-
-        List<User> storedUsers = root.getUsers();
-        ExamDB db = new ExamDB(CSVLoader.getTempFilePath("csv/klausuren.csv"));
+	private static String etag(ExamDB db, UserSelection selection) {
+		return "\"v" + IcsFragments.FORMAT_VERSION
+				+ "-" + Long.toHexString(db.getVersion())
+				+ "-" + Long.toHexString(db.getLoadedAt().toEpochMilli())
+				+ "-" + Long.toHexString(selection.version()) + "\"";
+	}
 
-        storageManager.shutdown();
-    	
-        StringBuilder calendar = new StringBuilder();
-        calendar.append("BEGIN:VCALENDAR\nVERSION:2.0\nPRODID:hs-emden-leer.de\n");
-        
-        boolean userWasFound = false;
-        
-        for (User user : storedUsers) {
-			if (user.getUuid().equals(uuid)) {
-				userWasFound = true;
-				
-				for (Integer examId : user.getIds()) {
-					Exam exam = db.getExamById(examId);
-					
-					String dateTime = exam.getDate().split(",")[1].trim() + currentYear + " " + exam.getTime();
-		            LocalDateTime start = LocalDateTime.parse(dateTime, inputFormat);
-		            LocalDateTime end = start.plusMinutes(150);
-		            
-		            calendar.append("BEGIN:VEVENT\n");
-		            calendar.append("UID:exam-").append(exam.getId()).append("\n");
-		            calendar.append("DTSTAMP:").append(utcStamp.format(Instant.now())).append("\n");
-		            calendar.append("DTSTART:").append(start.format(outputFormat)).append("\n");
-		            calendar.append("DTEND:").append(end.format(outputFormat)).append("\n");
-		            calendar.append("SUMMARY:").append(exam.getName()).append("\n");
-		            calendar.append("DESCRIPTION:Prüfer: ")
-		                    .append(exam.getExaminer())
-		                    .append(" - Gruppe: ")
-		                    .append(exam.getGroups())
-		                    .append("\n");
-		            calendar.append("LOCATION:").append(exam.getRooms()).append("\n");
-		            calendar.append("END:VEVENT\n");
+	/**
+     * Prüft die bedingten Anfrage-Header nach RFC 9110.
+     * <p>
+     * Ist {@code If-None-Match} vorhanden, entscheidet allein der Vergleich mit dem {@code ETag};
+     * andernfalls wird {@code If-Modified-Since} mit dem Änderungszeitpunkt verglichen.
+     *
+     * @param request      die HTTP-Anfrage
+     * @param etag         aktuelles {@code ETag} des Abonnements
+     * @param lastModified aktueller Änderungszeitpunkt, auf Sekunden gekürzt
+     * @return {@code true}, wenn der Client bereits den aktuellen Stand hat
+     */
+	private boolean isNotModified(HttpServletRequest request, String etag, Instant lastModified) {
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (ifNoneMatch != null) {
+			for (String candidate : ifNoneMatch.split(",")) {
+				String tag = candidate.trim();
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if (tag.equals("*") || tag.equals(etag)) {
+					return true;
 				}
-				break;
 			}
+			return false;
 		}
-        
-        calendar.append("END:VCALENDAR");
-        
-        if (userWasFound) {
-        	return calendar.toString().getBytes(StandardCharsets.UTF_8);
+		try {
+			long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+			return ifModifiedSince >= 0 && lastModified.toEpochMilli() <= ifModifiedSince;
+		} catch (IllegalArgumentException e) {
+			return false;
 		}
-        
-        return null;
 	}
-	
+
 	/**
      * Prüft, ob ein gegebener String eine gültige UUID darstellt.
      *
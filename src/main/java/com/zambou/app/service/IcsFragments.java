@@ -0,0 +1,164 @@
+package com.zambou.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import com.zambou.app.model.Exam;
+
+/**
+ * Vorab erzeugte {@code VEVENT}-Abschnitte aller Klausuren eines Katalog-Schnappschusses im UTF-8-Format.
+ * <p>
+ * Die Abschnitte liegen hintereinander in einem gemeinsamen Byte-Array und werden beim ersten
+ * ICS-Export eines Schnappschusses einmalig mit dem {@link IcsWriter} formatiert, also mit
+ * {@code CRLF}, Zeilenfaltung und maskierten Textwerten nach RFC 5545. Eine ICS-Datei besteht danach nur noch aus
+ * Kopf, den Abschnitten der ausgewählten Klausuren und dem Abschluss; sie wird als Folge von
+ * {@link ByteBuffer}-Sichten auf diese Bytes zusammengestellt und ohne Verkettung geschrieben.
+ * Je Datei entstehen so nur die Pufferverweise, unabhängig von der Textlänge.
+ * <p>
+ * Als {@code DTSTAMP} dient der Ladezeitpunkt des Schnappschusses, also der Zeitpunkt, zu dem die
+ * Angaben der Klausur zuletzt übernommen wurden. Er ist deshalb auch Teil des {@code ETag} im
+ * {@link ICSDownloadServlet}.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class IcsFragments {
+
+	/**
+     * Version des erzeugten Formats. Sie ist Teil des {@code ETag} und muss erhöht werden, sobald sich
+     * die erzeugten Bytes bei gleichen Eingaben ändern (z. B. andere Eigenschaften, Faltung oder Maskierung),
+     * damit Kalender-Apps die geänderte Datei erneut laden.
+     */
+	static final int FORMAT_VERSION = 1;
+
+	/** Zeitstempel in UTC für {@code DTSTAMP} */
+	private static final DateTimeFormatter UTC_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+	/** Lokale Zeit für {@code DTSTART} und {@code DTEND} */
+	private static final DateTimeFormatter LOCAL_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+	private static final byte[] HEADER = calendarLines(true);
+
+	private static final byte[] FOOTER = calendarLines(false);
+
+	/** Alle Abschnitte hintereinander */
+	private final byte[] bytes;
+
+	/** Abschnitt je Klausurposition: {@code bytes[offsets[row] .. offsets[row + 1]]} */
+	private final int[] offsets;
+
+	private IcsFragments(byte[] bytes, int[] offsets) {
+		this.bytes = bytes;
+		this.offsets = offsets;
+	}
+
+	/**
+     * Formatiert die Abschnitte aller Klausuren.
+     *
+     * @param exams    Klausuren in Katalogreihenfolge
+     * @param loadedAt Ladezeitpunkt des Schnappschusses für {@code DTSTAMP}
+     * @return die Abschnitte
+     */
+	static IcsFragments build(List<Exam> exams, Instant loadedAt) {
+		String stamp = UTC_STAMP.format(loadedAt);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(exams.size() * 256);
+		IcsWriter writer = new IcsWriter(out);
+		int[] offsets = new int[exams.size() + 1];
+		try {
+			for (int row = 0; row < exams.size(); row++) {
+				Exam exam = exams.get(row);
+				LocalDateTime start = exam.getStart();
+				writer.begin("VEVENT")
+						.property("UID", "exam-" + exam.getId())
+						.property("DTSTAMP", stamp)
+						.property("DTSTART", LOCAL_TIME.format(start))
+						.property("DTEND", LOCAL_TIME.format(start.plusMinutes(Exam.DURATION_MINUTES)))
+						.text("SUMMARY", exam.getName())
+						.text("DESCRIPTION", "Prüfer: " + exam.getExaminer() + " - Gruppe: " + exam.getGroups())
+						.text("LOCATION", exam.getRooms())
+						.end("VEVENT")
+						.flush();
+				offsets[row + 1] = out.size();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new IcsFragments(out.toByteArray(), offsets);
+	}
+
+	/**
+     * Erzeugt Kopf bzw. Abschluss des Kalenders.
+     *
+     * @param begin {@code true} für den Kopf, {@code false} für den Abschluss
+     * @return die kodierten Zeilen
+     */
+	private static byte[] calendarLines(boolean begin) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+		IcsWriter writer = new IcsWriter(out);
+		try {
+			if (begin) {
+				writer.begin("VCALENDAR")
+						.property("VERSION", "2.0")
+						.property("PRODID", "hs-emden-leer.de");
+			} else {
+				writer.end("VCALENDAR");
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+     * Stellt die ICS-Datei für die angegebenen Klausurpositionen zusammen.
+     *
+     * @param rows Klausurpositionen in der gewünschten Reihenfolge
+     * @return Kopf, je Klausur eine Sicht auf ihren gemeinsam genutzten Abschnitt und Abschluss;
+     *         die Inhalte der Puffer dürfen nur gelesen werden
+     */
+	ByteBuffer[] feed(int[] rows) {
+		ByteBuffer[] buffers = new ByteBuffer[rows.length + 2];
+		buffers[0] = ByteBuffer.wrap(HEADER);
+		for (int i = 0; i < rows.length; i++) {
+			buffers[i + 1] = ByteBuffer.wrap(bytes, offsets[rows[i]], offsets[rows[i] + 1] - offsets[rows[i]]);
+		}
+		buffers[rows.length + 1] = ByteBuffer.wrap(FOOTER);
+		return buffers;
+	}
+
+	/**
+     * Gibt die Gesamtlänge einer zusammengestellten Datei zurück.
+     *
+     * @param buffers Puffer aus {@link #feed(int[])}
+     * @return Anzahl der Bytes
+     */
+	static long length(ByteBuffer[] buffers) {
+		long length = 0;
+		for (ByteBuffer buffer : buffers) {
+			length += buffer.remaining();
+		}
+		return length;
+	}
+
+	/**
+     * Schreibt eine zusammengestellte Datei direkt aus den Puffern, ohne sie vorher zu verketten.
+     *
+     * @param buffers Puffer aus {@link #feed(int[])}
+     * @param out     Zielstrom
+     * @throws IOException bei Schreibfehlern
+     */
+	static void write(ByteBuffer[] buffers, OutputStream out) throws IOException {
+		for (ByteBuffer buffer : buffers) {
+			out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+	}
+}
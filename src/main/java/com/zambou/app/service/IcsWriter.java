@@ -0,0 +1,190 @@
+package com.zambou.app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Schreibt iCalendar-Inhalte (RFC 5545) zeilenweise direkt in einen {@link OutputStream}.
+ * <p>
+ * Jede Inhaltszeile endet mit {@code CRLF} und wird nach spätestens 75 Oktetten gefaltet
+ * (Zeilenumbruch gefolgt von einem Leerzeichen), ohne dabei UTF-8-Zeichen oder Escape-Sequenzen
+ * zu trennen. Werte vom Typ {@code TEXT} werden mit {@link #text(String, String)} geschrieben;
+ * Backslash, Semikolon, Komma und Zeilenumbrüche werden dabei maskiert.
+ * <p>
+ * Der Schreiber kodiert Zeichen für Zeichen in einen kleinen Puffer fester Größe; das Dokument
+ * wird also nie vollständig im Speicher gehalten. Mit {@link #flush()} wird der Puffer in den
+ * Zielstrom geschrieben. Der Zielstrom wird nicht geschlossen.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class IcsWriter {
+
+	/** Maximale Länge einer Zeile in Oktetten, ohne {@code CRLF} */
+	private static final int MAX_LINE_OCTETS = 75;
+
+	private final OutputStream out;
+
+	private final byte[] buffer = new byte[8192];
+
+	/** Anzahl der gepufferten Bytes */
+	private int count;
+
+	/** Anzahl der Oktette in der aktuellen (physischen) Zeile */
+	private int lineOctets;
+
+	/**
+     * Erstellt einen Schreiber für den angegebenen Zielstrom.
+     *
+     * @param out Zielstrom
+     */
+	IcsWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+     * Beginnt eine Komponente, z. B. {@code VCALENDAR} oder {@code VEVENT}.
+     *
+     * @param component Name der Komponente
+     * @return dieser Schreiber
+     * @throws IOException bei Schreibfehlern
+     */
+	IcsWriter begin(String component) throws IOException {
+		return property("BEGIN", component);
+	}
+
+	/**
+     * Beendet eine Komponente.
+     *
+     * @param component Name der Komponente
+     * @return dieser Schreiber
+     * @throws IOException bei Schreibfehlern
+     */
+	IcsWriter end(String component) throws IOException {
+		return property("END", component);
+	}
+
+	/**
+     * Schreibt eine Eigenschaft, deren Wert bereits im Zielformat vorliegt (z. B. Datum, Zeit oder UID).
+     *
+     * @param name  Name der Eigenschaft
+     * @param value unveränderter Wert
+     * @return dieser Schreiber
+     * @throws IOException bei Schreibfehlern
+     */
+	IcsWriter property(String name, String value) throws IOException {
+		appendValue(name, false);
+		appendUnit(':');
+		appendValue(value, false);
+		endLine();
+		return this;
+	}
+
+	/**
+     * Schreibt eine Eigenschaft vom Typ {@code TEXT} und maskiert dabei Sonderzeichen.
+     *
+     * @param name  Name der Eigenschaft, z. B. {@code SUMMARY}
+     * @param value Text
+     * @return dieser Schreiber
+     * @throws IOException bei Schreibfehlern
+     */
+	IcsWriter text(String name, String value) throws IOException {
+		appendValue(name, false);
+		appendUnit(':');
+		appendValue(value, true);
+		endLine();
+		return this;
+	}
+
+	/**
+     * Schreibt die gepufferten Bytes in den Zielstrom.
+     *
+     * @throws IOException bei Schreibfehlern
+     */
+	void flush() throws IOException {
+		if (count > 0) {
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+     * Kodiert einen Wert als UTF-8 und faltet die Zeile bei Bedarf.
+     *
+     * @param value  Wert
+     * @param escape {@code true}, um Sonderzeichen von {@code TEXT}-Werten zu maskieren
+     * @throws IOException bei Schreibfehlern
+     */
+	private void appendValue(String value, boolean escape) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (escape && (c == '\\' || c == ';' || c == ',')) {
+				appendEscaped(c);
+			} else if (escape && c == '\n') {
+				appendEscaped('n');
+			} else if (escape && c == '\r') {
+				continue;
+			} else if (c < 0x80) {
+				appendUnit(c);
+			} else if (c < 0x800) {
+				fold(2);
+				put(0xC0 | c >> 6);
+				put(0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				fold(4);
+				put(0xF0 | codePoint >> 18);
+				put(0x80 | codePoint >> 12 & 0x3F);
+				put(0x80 | codePoint >> 6 & 0x3F);
+				put(0x80 | codePoint & 0x3F);
+			} else if (Character.isSurrogate(c)) {
+				appendUnit('?');
+			} else {
+				fold(3);
+				put(0xE0 | c >> 12);
+				put(0x80 | c >> 6 & 0x3F);
+				put(0x80 | c & 0x3F);
+			}
+		}
+	}
+
+	private void appendUnit(int ascii) throws IOException {
+		fold(1);
+		put(ascii);
+	}
+
+	private void appendEscaped(char c) throws IOException {
+		fold(2);
+		put('\\');
+		put(c);
+	}
+
+	/**
+     * Beginnt eine Fortsetzungszeile, falls die nächsten Oktette die aktuelle Zeile zu lang machen würden.
+     *
+     * @param octets Anzahl der als Einheit zu schreibenden Oktette
+     * @throws IOException bei Schreibfehlern
+     */
+	private void fold(int octets) throws IOException {
+		if (lineOctets + octets > MAX_LINE_OCTETS) {
+			put('\r');
+			put('\n');
+			put(' ');
+			lineOctets = 1;
+		}
+		lineOctets += octets;
+	}
+
+	private void endLine() throws IOException {
+		put('\r');
+		put('\n');
+		lineOctets = 0;
+	}
+
+	private void put(int b) throws IOException {
+		if (count == buffer.length) {
+			flush();
+		}
+		buffer[count++] = (byte) b;
+	}
+}
@@ -0,0 +1,114 @@
+package com.zambou.app.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vaadin.stefan.fullcalendar.Entry;
+
+/**
+ * Messung des Aufwands einzelner Kalender-Interaktionen je {@link SelectionMode}.
+ * <p>
+ * Bei aktiviertem Debug-Logging dieser Klasse werden für jede Interaktion (Abruf eines Zeitraums,
+ * Filterwechsel, Änderung der Auswahl) die CPU-Zeit des Threads, die dabei allozierten Bytes und
+ * die Größe der an den Browser gesendeten Daten protokolliert, zusammen mit dem Mittelwert aller
+ * bisherigen Messungen derselben Art. Betreibt man die Anwendung nacheinander mit verschiedenen
+ * Varianten, lassen sich diese direkt vergleichen.
+ * <p>
+ * Ohne Debug-Logging wird die Arbeit nur ausgeführt. Die Größe der gesendeten Daten ermitteln die
+ * Aufrufer deshalb ausschließlich in der übergebenen {@code payloadBytes}-Funktion, und wer für die
+ * Messung ein Zwischenergebnis sammeln müsste (z. B. eine Liste statt eines Streams), fragt vorher
+ * {@link #isEnabled()} ab.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class InteractionMetrics {
+
+	private static final Logger log = LoggerFactory.getLogger(InteractionMetrics.class);
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/** Summen je Variante und Interaktion: Anzahl, CPU-Nanosekunden, allozierte Bytes, gesendete Bytes */
+	private static final Map<String, LongAdder[]> TOTALS = new ConcurrentHashMap<>();
+
+	private InteractionMetrics() {}
+
+	/**
+     * Gibt an, ob Interaktionen gemessen werden.
+     *
+     * @return {@code true} bei aktiviertem Debug-Logging dieser Klasse
+     */
+	static boolean isEnabled() {
+		return log.isDebugEnabled();
+	}
+
+	/**
+     * Führt eine Interaktion aus und misst ihren Aufwand.
+     *
+     * @param mode         Variante der Auswahldarstellung
+     * @param interaction  Bezeichnung der Interaktion
+     * @param work         auszuführende Arbeit
+     * @param payloadBytes ermittelt aus dem Ergebnis die Anzahl der an den Browser gesendeten Bytes;
+     *                     wird nur bei aktivierter Messung und außerhalb der gemessenen Arbeit aufgerufen
+     * @param <T>          Ergebnistyp
+     * @return Ergebnis der Arbeit
+     */
+	static <T> T measure(SelectionMode mode, String interaction, Supplier<T> work, ToIntFunction<T> payloadBytes) {
+		if (!isEnabled()) {
+			return work.get();
+		}
+		long cpuBefore = THREADS.getCurrentThreadCpuTime();
+		long allocatedBefore = allocatedBytes();
+		T result = work.get();
+		long cpu = THREADS.getCurrentThreadCpuTime() - cpuBefore;
+		long allocated = allocatedBytes() - allocatedBefore;
+		int payload = payloadBytes.applyAsInt(result);
+
+		LongAdder[] totals = TOTALS.computeIfAbsent(mode + " " + interaction,
+				key -> new LongAdder[] { new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder() });
+		totals[0].increment();
+		totals[1].add(cpu);
+		totals[2].add(allocated);
+		totals[3].add(payload);
+		long count = totals[0].sum();
+
+		log.debug("{} {}: {} µs CPU, {} Bytes alloziert, {} Bytes gesendet (Mittel aus {}: {} µs, {} Bytes, {} Bytes)",
+				mode, interaction, cpu / 1000, allocated, payload,
+				count, totals[1].sum() / count / 1000, totals[2].sum() / count, totals[3].sum() / count);
+		return result;
+	}
+
+	/**
+     * Ermittelt die Größe der Einträge im JSON-Format, wie sie an den Browser gesendet werden.
+     *
+     * @param entries Einträge
+     * @return Anzahl der Zeichen
+     */
+	static int jsonBytes(List<Entry> entries) {
+		int bytes = 0;
+		for (Entry entry : entries) {
+			bytes += entry.toJson().toJson().length();
+		}
+		return bytes;
+	}
+
+	/**
+     * Gibt die bisher vom aktuellen Thread allozierten Bytes zurück, sofern die JVM dies unterstützt.
+     *
+     * @return allozierte Bytes oder {@code 0}
+     */
+	private static long allocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean threads) {
+			return threads.getCurrentThreadAllocatedBytes();
+		}
+		return 0;
+	}
+}
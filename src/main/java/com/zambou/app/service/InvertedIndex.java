@@ -0,0 +1,281 @@
+package com.zambou.app.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import com.zambou.app.model.Exam;
+
+/**
+ * Invertierter Index von Attributwerten auf die Positionen der Klausuren, die diesen Wert tragen.
+ * <p>
+ * Jeder Wert (z. B. eine Gruppe oder ein Raum) verweist auf ein {@link BitSet}, in dem Bit {@code i}
+ * für die Klausur an Position {@code i} der Katalogliste gesetzt ist. Filter lassen sich so durch
+ * Schnittmengen von Bitmaps beantworten, ohne die Klausuren einzeln zu durchlaufen.
+ * <p>
+ * Zusätzlich hält der Index das sortierte Wörterbuch aller Werte und je Klausur die Ordnungszahlen
+ * ihrer Werte darin. Daraus lassen sich Trefferzahlen je Wert für eine beliebige Auswahl von
+ * Klausuren zählen, ohne Zwischenobjekte zu erzeugen.
+ * <p>
+ * Der Index wird einmalig beim Erstellen eines Katalog-Schnappschusses aufgebaut oder aus dessen
+ * Binärabbild gelesen und danach nicht mehr verändert. Abfragen liefern stets Kopien, die der Aufrufer verändern darf.
+ *
+ * @author Yvan Zambou
+ * @version 1.1
+ */
+final class InvertedIndex {
+
+	/** Alphabetisch sortierte, eindeutige Werte */
+	private final List<String> values;
+
+	/** Dieselben Werte als unveränderliche sortierte Menge */
+	private final SortedSet<String> valueSet;
+
+	/** Ordnungszahl jedes Wertes in {@link #values} */
+	private final Map<String, Integer> ordinals;
+
+	/** Bitmap der Klausurpositionen je Ordnungszahl */
+	private final BitSet[] postings;
+
+	/** Ordnungszahlen der Werte je Klausurposition: {@code rowOrdinals[rowOffsets[row] .. rowOffsets[row + 1]]} */
+	private final int[] rowOffsets;
+	private final int[] rowOrdinals;
+
+	/** Trefferzahlen je Ordnungszahl über alle Klausuren */
+	private final int[] totalCounts;
+
+	/** Trigramm-Index über {@link #values} für die Teiltextsuche */
+	private final TrigramIndex trigrams;
+
+	private InvertedIndex(List<String> values, Map<String, Integer> ordinals, BitSet[] postings, int[] rowOffsets,
+			int[] rowOrdinals) {
+		this.values = values;
+		this.valueSet = Collections.unmodifiableSortedSet(new TreeSet<>(values));
+		this.ordinals = Collections.unmodifiableMap(ordinals);
+		this.postings = postings;
+		this.rowOffsets = rowOffsets;
+		this.rowOrdinals = rowOrdinals;
+		this.totalCounts = new int[postings.length];
+		for (int ordinal = 0; ordinal < postings.length; ordinal++) {
+			totalCounts[ordinal] = postings[ordinal].cardinality();
+		}
+		this.trigrams = TrigramIndex.build(values);
+	}
+
+	/**
+     * Baut einen Index über die übergebenen Klausuren auf.
+     *
+     * @param exams  Klausuren in Katalogreihenfolge
+     * @param values Funktion, die die indizierten Werte einer Klausur liefert
+     * @return der aufgebaute Index
+     */
+	static InvertedIndex build(List<Exam> exams, Function<Exam, List<String>> values) {
+		TreeMap<String, BitSet> byValue = new TreeMap<>();
+		for (int row = 0; row < exams.size(); row++) {
+			for (String value : values.apply(exams.get(row))) {
+				byValue.computeIfAbsent(value, v -> new BitSet(exams.size())).set(row);
+			}
+		}
+
+		List<String> sorted = List.copyOf(byValue.keySet());
+		Map<String, Integer> ordinals = new HashMap<>(sorted.size() * 2);
+		BitSet[] postings = new BitSet[sorted.size()];
+		int[] rowOffsets = new int[exams.size() + 1];
+		for (int ordinal = 0; ordinal < sorted.size(); ordinal++) {
+			ordinals.put(sorted.get(ordinal), ordinal);
+			postings[ordinal] = byValue.get(sorted.get(ordinal));
+			postings[ordinal].stream().forEach(row -> rowOffsets[row + 1]++);
+		}
+		for (int row = 0; row < exams.size(); row++) {
+			rowOffsets[row + 1] += rowOffsets[row];
+		}
+
+		int[] fill = Arrays.copyOf(rowOffsets, exams.size());
+		int[] rowOrdinals = new int[rowOffsets[exams.size()]];
+		for (int ordinal = 0; ordinal < postings.length; ordinal++) {
+			int current = ordinal;
+			postings[ordinal].stream().forEach(row -> rowOrdinals[fill[row]++] = current);
+		}
+		return new InvertedIndex(sorted, ordinals, postings, rowOffsets, rowOrdinals);
+	}
+
+	/**
+     * Schreibt den Index in ein binäres Format, das mit {@link #readFrom(ByteBuffer, int)} wieder gelesen wird.
+     * <p>
+     * Gespeichert werden das Wörterbuch und die Ordnungszahlen je Klausur; die Bitmaps lassen sich
+     * daraus in einem Durchgang wiederherstellen.
+     *
+     * @param out Zielstrom
+     * @throws IOException bei Schreibfehlern
+     */
+	void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		for (int offset : rowOffsets) {
+			out.writeInt(offset);
+		}
+		for (int ordinal : rowOrdinals) {
+			out.writeInt(ordinal);
+		}
+	}
+
+	/**
+     * Liest einen mit {@link #writeTo(DataOutputStream)} geschriebenen Index.
+     *
+     * @param in   Puffer, positioniert am Anfang des Index; wird bis hinter den Index weitergesetzt
+     * @param rows Anzahl der Klausuren im zugehörigen Katalog
+     * @return der gelesene Index
+     * @throws java.nio.BufferUnderflowException wenn der Puffer vorzeitig endet
+     */
+	static InvertedIndex readFrom(ByteBuffer in, int rows) {
+		List<String> values = new ArrayList<>();
+		int count = in.getInt();
+		Map<String, Integer> ordinals = new HashMap<>(count * 2);
+		for (int ordinal = 0; ordinal < count; ordinal++) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			values.add(value);
+			ordinals.put(value, ordinal);
+		}
+
+		int[] rowOffsets = new int[rows + 1];
+		in.asIntBuffer().get(rowOffsets);
+		in.position(in.position() + Integer.BYTES * rowOffsets.length);
+		int[] rowOrdinals = new int[rowOffsets[rows]];
+		in.asIntBuffer().get(rowOrdinals);
+		in.position(in.position() + Integer.BYTES * rowOrdinals.length);
+
+		BitSet[] postings = new BitSet[count];
+		for (int ordinal = 0; ordinal < count; ordinal++) {
+			postings[ordinal] = new BitSet(rows);
+		}
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+				postings[rowOrdinals[i]].set(row);
+			}
+		}
+		return new InvertedIndex(List.copyOf(values), ordinals, postings, rowOffsets, rowOrdinals);
+	}
+
+	/**
+     * Liefert die Positionen aller Klausuren mit genau diesem Wert.
+     *
+     * @param value gesuchter Wert
+     * @return neue Bitmap der Treffer, leer falls der Wert nicht vorkommt
+     */
+	BitSet exact(String value) {
+		Integer ordinal = ordinals.get(value);
+		return ordinal != null ? (BitSet) postings[ordinal].clone() : new BitSet();
+	}
+
+	/**
+     * Liefert die Positionen aller Klausuren, deren Wert den Suchtext enthält.
+     * <p>
+     * Der Suchtext wird nur mit den eindeutigen Werten des Index verglichen, nicht mit jeder Klausur.
+     * Ab drei Zeichen grenzt der {@link TrigramIndex} die zu prüfenden Werte vorab ein.
+     *
+     * @param fragment gesuchter Teiltext
+     * @return neue Bitmap der Treffer
+     */
+	BitSet containing(String fragment) {
+		BitSet result = new BitSet();
+		BitSet candidates = trigrams.candidates(fragment);
+		if (candidates == null) {
+			candidates = new BitSet(values.size());
+			candidates.set(0, values.size());
+		}
+		for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+			if (values.get(ordinal).contains(fragment)) {
+				result.or(postings[ordinal]);
+			}
+		}
+		return result;
+	}
+
+	/**
+     * Sucht Werte, die dem Suchtext entsprechen oder ihm ähneln (siehe {@link TrigramIndex#search(String)}).
+     *
+     * @param query Suchtext
+     * @return Treffer, bester Treffer zuerst
+     */
+	List<TrigramIndex.Match> search(String query) {
+		return trigrams.search(query);
+	}
+
+	/**
+     * Gibt die Anzahl aller Klausuren mit dem Wert der angegebenen Ordnungszahl zurück.
+     *
+     * @param ordinal Ordnungszahl des Wertes
+     * @return Anzahl der Klausuren
+     */
+	int totalCount(int ordinal) {
+		return totalCounts[ordinal];
+	}
+
+	/**
+     * Zählt je Wert, wie viele der ausgewählten Klausuren ihn tragen.
+     * <p>
+     * Der Aufwand richtet sich nach der Anzahl ausgewählter Klausuren, nicht nach der Katalog- oder
+     * Wörterbuchgröße. Ist {@code rows} {@code null}, werden die beim Aufbau berechneten
+     * Gesamtzahlen zurückgegeben.
+     *
+     * @param rows ausgewählte Klausurpositionen oder {@code null} für alle Klausuren
+     * @return Trefferzahl je Ordnungszahl; bei {@code rows == null} das gemeinsame, nicht zu verändernde Array
+     */
+	int[] countWithin(BitSet rows) {
+		if (rows == null) {
+			return totalCounts;
+		}
+		int[] counts = new int[postings.length];
+		for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+			for (int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+				counts[rowOrdinals[i]]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+     * Gibt alle indizierten Werte in alphabetischer Reihenfolge zurück.
+     *
+     * @return unveränderliche Liste der Werte, Position entspricht der Ordnungszahl
+     */
+	List<String> values() {
+		return values;
+	}
+
+	/**
+     * Gibt alle indizierten Werte als sortierte Menge zurück.
+     *
+     * @return unveränderliche sortierte Menge der Werte
+     */
+	SortedSet<String> valueSet() {
+		return valueSet;
+	}
+
+	/**
+     * Gibt die Zuordnung von Werten zu Ordnungszahlen zurück.
+     *
+     * @return unveränderliche Sicht auf die Ordnungszahlen
+     */
+	Map<String, Integer> ordinals() {
+		return ordinals;
+	}
+}
@@ -0,0 +1,40 @@
+package com.zambou.app.service;
+
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+
+/**
+ * Art, wie die zum Export ausgewählten Klausuren im Kalender hervorgehoben werden.
+ * <p>
+ * Die Varianten unterscheiden sich darin, wo die Markierung berechnet wird und was bei einer
+ * Änderung der Auswahl an den Browser gesendet wird. Die Auswahl erfolgt über die Eigenschaft
+ * {@code klausurplan.calendar.selection}.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public enum SelectionMode {
+
+	/** Keine Hervorhebung; eine Änderung der Auswahl sendet nichts an den Kalender */
+	STATIC,
+
+	/** Der Server färbt die Einträge ein und sendet bei einer Änderung den betroffenen Eintrag neu */
+	SERVER,
+
+	/** Der Browser färbt die Einträge anhand einer Auswahl-Bitmap; eine Änderung sendet nur Position, ID und Zustand */
+	CLIENT;
+
+	/**
+     * Erstellt die Darstellungsstrategie dieser Variante für einen Kalender.
+     *
+     * @param calendar der Kalender einer Ansicht
+     * @param db       Katalog-Schnappschuss, aus dem der Kalender seine Einträge erhält
+     * @return neue, an den Kalender gebundene Strategie
+     */
+	SelectionRenderer createRenderer(FullCalendar calendar, ExamDB db) {
+		return switch (this) {
+			case STATIC -> new StaticSelectionRenderer();
+			case SERVER -> new ServerSelectionRenderer(calendar);
+			case CLIENT -> new ClientSelectionRenderer(calendar, db);
+		};
+	}
+}
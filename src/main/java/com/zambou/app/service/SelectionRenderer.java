@@ -0,0 +1,64 @@
+package com.zambou.app.service;
+
+import java.util.function.IntSupplier;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+
+/**
+ * Strategie zur Darstellung der Exportauswahl im Kalender einer Ansicht.
+ * <p>
+ * Der {@link CalendarService} erzeugt Einträge stets aus den gemeinsamen {@link EntryTemplate}s
+ * und überlässt der Strategie, wie ausgewählte Klausuren hervorgehoben und nach einer Änderung
+ * aktualisiert werden (siehe {@link SelectionMode}).
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+interface SelectionRenderer {
+
+	/** Hintergrundfarbe nicht ausgewählter Einträge */
+	String DEFAULT_COLOR = "#3788d8";
+
+	/** Hintergrundfarbe ausgewählter Einträge */
+	String SELECTED_COLOR = "#4caf50";
+
+	/**
+     * Gibt den JavaScript-Ausdruck zurück, der im Browser die Hintergrundfarbe eines Eintrags
+     * bestimmt. Im Ausdruck stehen {@code arg} (Argument des Inhalts-Callbacks), {@code id}
+     * (Prüfungs-ID) und {@code row} (Position der Klausur im Katalog) zur Verfügung.
+     *
+     * @return JavaScript-Ausdruck für die Hintergrundfarbe
+     */
+	String backgroundColorScript();
+
+	/**
+     * Wird aufgerufen, wenn der Kalender (erneut) im Browser angezeigt wird.
+     */
+	default void attached() {}
+
+	/**
+     * Wird zu Beginn jeder Abfrage eines Zeitraums aufgerufen, bevor Einträge erzeugt werden.
+     */
+	default void rangeFetched() {}
+
+	/**
+     * Passt einen neu erzeugten Eintrag an die aktuelle Auswahl an.
+     *
+     * @param entry  Eintrag aus der gemeinsamen Vorlage
+     * @param examId Prüfungs-ID des Eintrags
+     * @return der anzuzeigende Eintrag
+     */
+	default Entry render(Entry entry, int examId) {
+		return entry;
+	}
+
+	/**
+     * Aktualisiert die Darstellung nach einer Änderung der Auswahl.
+     *
+     * @param examId   Prüfungs-ID
+     * @param selected neuer Auswahlzustand
+     * @return ermittelt auf Anfrage die ungefähre Anzahl der dafür an den Browser gesendeten Bytes
+     *         (nur für {@link InteractionMetrics})
+     */
+	IntSupplier selectionChanged(int examId, boolean selected);
+}
@@ -0,0 +1,59 @@
+package com.zambou.app.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+
+/**
+ * Serverseitige Einfärbung ausgewählter Klausuren (siehe {@link SelectionMode#SERVER}).
+ * <p>
+ * Die Strategie merkt sich die zuletzt gelieferten Einträge je Prüfungs-ID. Nach einer Änderung
+ * der Auswahl wird nur der betroffene Eintrag umgefärbt und per {@code refreshItem} neu gesendet.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class ServerSelectionRenderer implements SelectionRenderer {
+
+	private final FullCalendar calendar;
+
+	/** Zuletzt an den Kalender gelieferte Einträge je Prüfungs-ID */
+	private final Map<Integer, Entry> shownEntries = new HashMap<>();
+
+	ServerSelectionRenderer(FullCalendar calendar) {
+		this.calendar = calendar;
+	}
+
+	@Override
+	public String backgroundColorScript() {
+		return "arg.event.backgroundColor || \"" + DEFAULT_COLOR + "\"";
+	}
+
+	@Override
+	public void rangeFetched() {
+		// Der Kalender ersetzt bei jedem Abruf alle Einträge
+		shownEntries.clear();
+	}
+
+	@Override
+	public Entry render(Entry entry, int examId) {
+		boolean selected = UserSessionService.getUser().getIds().contains(examId);
+		entry.setBackgroundColor(selected ? SELECTED_COLOR : DEFAULT_COLOR);
+		shownEntries.put(examId, entry);
+		return entry;
+	}
+
+	@Override
+	public IntSupplier selectionChanged(int examId, boolean selected) {
+		Entry shown = shownEntries.get(examId);
+		if (shown == null) {
+			return () -> 0;
+		}
+		shown.setBackgroundColor(selected ? SELECTED_COLOR : DEFAULT_COLOR);
+		calendar.getEntryProvider().refreshItem(shown);
+		return () -> shown.toJson().toJson().length();
+	}
+}
@@ -0,0 +1,22 @@
+package com.zambou.app.service;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Darstellung ohne Hervorhebung der Exportauswahl (siehe {@link SelectionMode#STATIC}).
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class StaticSelectionRenderer implements SelectionRenderer {
+
+	@Override
+	public String backgroundColorScript() {
+		return "\"" + DEFAULT_COLOR + "\"";
+	}
+
+	@Override
+	public IntSupplier selectionChanged(int examId, boolean selected) {
+		return () -> 0;
+	}
+}
@@ -0,0 +1,202 @@
+package com.zambou.app.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Trigramm-Index über die Werte eines {@link InvertedIndex} für Teiltext- und fehlertolerante Suche.
+ * <p>
+ * Jeder Wert wird normalisiert (Kleinschreibung, Umlaute als {@code ae}/{@code oe}/{@code ue},
+ * {@code ß} als {@code ss}, sonstige Akzente entfernt) und in überlappende Dreiergruppen von Zeichen
+ * zerlegt. Eine Suchanfrage wird ebenso zerlegt; Werte, die ausreichend viele Trigramme mit der Anfrage
+ * teilen, sind Treffer. Werte, die die Anfrage vollständig enthalten, stehen im Ergebnis vorn, danach
+ * folgen ähnliche Werte (z. B. mit Tippfehlern) absteigend nach Übereinstimmung.
+ * <p>
+ * Der Index arbeitet auf dem Wörterbuch, nicht auf den einzelnen Klausuren; sein Umfang hängt daher
+ * nur von der Anzahl verschiedener Werte ab. Er wird einmalig je Katalog-Schnappschuss aufgebaut.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+final class TrigramIndex {
+
+	/** Mindestanteil gemeinsamer Trigramme, damit ein Wert als ähnlich gilt */
+	private static final double MIN_SHARED = 0.6;
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	/** Normalisierte Werte je Ordnungszahl */
+	private final String[] normalized;
+
+	/** Anzahl verschiedener Trigramme je Ordnungszahl */
+	private final int[] gramCounts;
+
+	/** Ordnungszahlen der Werte je Trigramm */
+	private final Map<Long, int[]> postings;
+
+	private TrigramIndex(String[] normalized, int[] gramCounts, Map<Long, int[]> postings) {
+		this.normalized = normalized;
+		this.gramCounts = gramCounts;
+		this.postings = postings;
+	}
+
+	/**
+     * Baut den Index über die übergebenen Werte auf.
+     *
+     * @param values Werte in der Reihenfolge ihrer Ordnungszahlen
+     * @return der aufgebaute Index
+     */
+	static TrigramIndex build(List<String> values) {
+		String[] normalized = new String[values.size()];
+		int[] gramCounts = new int[values.size()];
+		Map<Long, List<Integer>> lists = new HashMap<>();
+		for (int ordinal = 0; ordinal < values.size(); ordinal++) {
+			normalized[ordinal] = normalize(values.get(ordinal));
+			Set<Long> grams = grams(normalized[ordinal]);
+			gramCounts[ordinal] = grams.size();
+			for (Long gram : grams) {
+				lists.computeIfAbsent(gram, g -> new ArrayList<>()).add(ordinal);
+			}
+		}
+
+		Map<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+		lists.forEach((gram, ordinals) -> postings.put(gram, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+		return new TrigramIndex(normalized, gramCounts, postings);
+	}
+
+	/**
+     * Normalisiert einen Text für den Vergleich.
+     *
+     * @param text Originaltext
+     * @return kleingeschriebener Text ohne Umlaute und Akzente, ohne führende und folgende Leerzeichen
+     */
+	static String normalize(String text) {
+		String lower = text.strip().toLowerCase(Locale.GERMAN)
+				.replace("ä", "ae")
+				.replace("ö", "oe")
+				.replace("ü", "ue")
+				.replace("ß", "ss");
+		for (int i = 0; i < lower.length(); i++) {
+			if (lower.charAt(i) >= 128) {
+				return MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+			}
+		}
+		return lower;
+	}
+
+	/**
+     * Zerlegt einen normalisierten Text in seine verschiedenen Trigramme.
+     *
+     * @param text normalisierter Text
+     * @return Trigramme, je drei Zeichen in einem {@code long} zusammengefasst
+     */
+	private static Set<Long> grams(String text) {
+		Set<Long> grams = new HashSet<>();
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+		}
+		return grams;
+	}
+
+	/**
+     * Zählt je Wert, wie viele Trigramme der Anfrage er enthält.
+     *
+     * @param grams Trigramme der Anfrage
+     * @return Anzahl gemeinsamer Trigramme je Ordnungszahl
+     */
+	private int[] sharedGrams(Set<Long> grams) {
+		int[] shared = new int[normalized.length];
+		for (Long gram : grams) {
+			int[] ordinals = postings.get(gram);
+			if (ordinals != null) {
+				for (int ordinal : ordinals) {
+					shared[ordinal]++;
+				}
+			}
+		}
+		return shared;
+	}
+
+	/**
+     * Ermittelt die Werte, die einen Teiltext enthalten könnten.
+     * <p>
+     * Das Ergebnis ist eine Obermenge der tatsächlichen Treffer, da die Normalisierung Groß- und
+     * Kleinschreibung sowie Umlaute zusammenfasst; der Aufrufer prüft die Kandidaten anschließend
+     * exakt. Ist der Teiltext zu kurz für Trigramme, wird {@code null} zurückgegeben.
+     *
+     * @param fragment gesuchter Teiltext
+     * @return Ordnungszahlen der Kandidaten oder {@code null}, falls alle Werte geprüft werden müssen
+     */
+	BitSet candidates(String fragment) {
+		Set<Long> grams = grams(normalize(fragment));
+		if (grams.isEmpty()) {
+			return null;
+		}
+		int[] shared = sharedGrams(grams);
+		BitSet result = new BitSet(normalized.length);
+		for (int ordinal = 0; ordinal < shared.length; ordinal++) {
+			if (shared[ordinal] == grams.size()) {
+				result.set(ordinal);
+			}
+		}
+		return result;
+	}
+
+	/**
+     * Sucht Werte, die der Anfrage entsprechen oder ihr ähneln, sortiert nach Relevanz.
+     * <p>
+     * Eine leere Anfrage liefert alle Werte in alphabetischer Reihenfolge. Anfragen mit weniger als
+     * drei Zeichen werden als Teiltext gesucht, wobei Werte mit passendem Anfang zuerst kommen.
+     *
+     * @param query Suchtext
+     * @return Treffer, bester Treffer zuerst
+     */
+	List<Match> search(String query) {
+		String needle = normalize(query);
+		List<Match> matches = new ArrayList<>();
+		Set<Long> grams = grams(needle);
+
+		if (grams.isEmpty()) {
+			for (int ordinal = 0; ordinal < normalized.length; ordinal++) {
+				if (normalized[ordinal].startsWith(needle)) {
+					matches.add(new Match(ordinal, 1.0, true));
+				} else if (normalized[ordinal].contains(needle)) {
+					matches.add(new Match(ordinal, 0.5, true));
+				}
+			}
+		} else {
+			int[] shared = sharedGrams(grams);
+			int required = Math.max(1, (int) Math.ceil(grams.size() * MIN_SHARED));
+			for (int ordinal = 0; ordinal < shared.length; ordinal++) {
+				if (shared[ordinal] >= required) {
+					double similarity = (double) shared[ordinal] / (grams.size() + gramCounts[ordinal] - shared[ordinal]);
+					boolean contains = shared[ordinal] == grams.size() && normalized[ordinal].contains(needle);
+					matches.add(new Match(ordinal, similarity, contains));
+				}
+			}
+		}
+
+		matches.sort(Comparator.comparing(Match::contained).reversed()
+				.thenComparing(Comparator.comparingDouble(Match::score).reversed())
+				.thenComparingInt(Match::ordinal));
+		return matches;
+	}
+
+	/**
+     * Ein Suchtreffer im Wörterbuch.
+     *
+     * @param ordinal   Ordnungszahl des Wertes
+     * @param score     Ähnlichkeit zwischen 0 und 1
+     * @param contained {@code true}, wenn der Wert die Anfrage vollständig enthält
+     */
+	record Match(int ordinal, double score, boolean contained) {}
+}
@@ -3,6 +3,7 @@ package com.zambou.app.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.zambou.app.model.User;
 import com.zambou.app.storage.UserStorageManager;
@@ -33,7 +34,7 @@ public class UserSessionService {
 	}
 	
 	/**
-     * Persistiert den aktuell eingeloggten Nutzer mithilfe des {@link UserStorageManager}.
+     * Persistiert den aktuell eingeloggten Nutzer mithilfe des gemeinsamen {@link UserStorageManager}.
      * <p>
      * Falls kein Nutzer in der Session vorhanden ist, wird eine Warnung im Log ausgegeben.
      * Bei einem Fehler während des Speicherns wird eine {@link RuntimeException} geworfen.
@@ -41,8 +42,8 @@ public class UserSessionService {
 	public static void storeUser() {
         User user = getUser();
         if (user != null) {
-	        try (UserStorageManager storageManager = new UserStorageManager()) {
-	            storageManager.save(user);
+	        try {
+	            VaadinService.getCurrent().getInstantiator().getOrCreate(UserStorageManager.class).save(user);
 	        } catch (Exception e) {
 	            throw new RuntimeException("Fehler beim Speichern des Nutzers", e);
 	        }
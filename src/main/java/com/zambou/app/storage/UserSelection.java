@@ -0,0 +1,54 @@
+package com.zambou.app.storage;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unveränderlicher Stand der zum Export ausgewählten Klausuren eines Nutzers, wie er zuletzt
+ * gespeichert wurde.
+ * <p>
+ * Die Version wird aus den ausgewählten Klausur-IDs berechnet: Gleiche Auswahl ergibt dieselbe
+ * Version, auch über einen Neustart hinweg. Zusammen mit der Katalogversion bildet sie das
+ * {@code ETag} des ICS-Abonnements.
+ *
+ * @param uuid       eindeutige Kennung des Nutzers
+ * @param examIds    aufsteigend sortierte IDs der ausgewählten Klausuren; nicht zu verändern
+ * @param version    aus den IDs berechnete Version der Auswahl
+ * @param modifiedAt gespeicherter Zeitpunkt der letzten Änderung der Auswahl, auf Sekunden gekürzt
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+public record UserSelection(UUID uuid, int[] examIds, long version, Instant modifiedAt) {
+
+	/**
+     * Erstellt den Stand aus den aktuell ausgewählten Klausuren.
+     *
+     * @param uuid       eindeutige Kennung des Nutzers
+     * @param ids        ausgewählte Klausur-IDs
+     * @param modifiedAt Zeitpunkt der Änderung
+     * @return der neue Stand
+     */
+	static UserSelection of(UUID uuid, Set<Integer> ids, Instant modifiedAt) {
+		int[] examIds = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+		long version = examIds.length;
+		for (int id : examIds) {
+			version = version * 0x9E3779B97F4A7C15L + id;
+		}
+		return new UserSelection(uuid, examIds, version, modifiedAt);
+	}
+
+	/**
+     * Gibt die ausgewählten Klausur-IDs als neue, veränderbare Menge zurück.
+     *
+     * @return Menge der IDs
+     */
+	Set<Integer> idSet() {
+		Set<Integer> set = new HashSet<>(examIds.length * 2);
+		Arrays.stream(examIds).forEach(set::add);
+		return set;
+	}
+}
@@ -1,17 +1,24 @@
 package com.zambou.app.storage;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.store.afs.sql.types.SqlConnector;
 import org.eclipse.store.afs.sql.types.SqlFileSystem;
 import org.eclipse.store.afs.sql.types.SqlProviderSqlite;
 import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
 import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.springframework.stereotype.Component;
 import org.sqlite.SQLiteDataSource;
 
 import com.zambou.app.model.User;
 
+import jakarta.annotation.PreDestroy;
 import utils.AppConfig;
 
 /**
@@ -20,15 +27,31 @@ import utils.AppConfig;
  * <p>
  * Sie initialisiert den Speicher, lädt die Root-Struktur, erlaubt das Speichern und Abrufen von Nutzern
  * und stellt sicher, dass Ressourcen korrekt freigegeben werden.
+ * <p>
+ * Der Speicher wird einmalig beim Start der Anwendung geöffnet und von allen Views und dem
+ * ICS-Servlet gemeinsam genutzt. Nutzer werden zusätzlich über ihre UUID indiziert, sodass eine
+ * Abfrage weder den Speicher neu einlesen noch die Nutzerliste durchlaufen muss. Je Nutzer wird
+ * dabei der zuletzt gespeicherte Stand seiner Auswahl als {@link UserSelection} mit Version und
+ * Änderungszeitpunkt gehalten. Der Änderungszeitpunkt wird mit dem Nutzer gespeichert, damit er
+ * über einen Neustart hinweg gleich bleibt; für ältere Datensätze ohne Zeitpunkt gilt
+ * {@link Instant#EPOCH}, sodass allein der Ladezeitpunkt des Katalogs maßgeblich ist.
+ * <p>
+ * Gespeichert wird jeweils eine Kopie des übergebenen Nutzers, und Abfragen liefern ebenfalls
+ * Kopien. Änderungen einer Sitzung an ihrem Nutzer werden so erst mit {@link #save(User)} sichtbar
+ * und können gleichzeitige Leser nicht stören.
  * 
  * @author Yvan Zambou
- * @version 1.0
+ * @version 1.1
  */
+@Component
 public class UserStorageManager implements AutoCloseable{
 
     private final EmbeddedStorageManager storageManager;
     private final Root root;
 
+    /** Gespeicherter Stand der Auswahl je UUID */
+    private final Map<UUID, UserSelection> selections = new ConcurrentHashMap<>();
+
     /**
      * Erstellt eine neue Instanz des {@code UserStorageManager} und initialisiert den eingebetteten Speicher.
      * <p>
@@ -51,6 +74,8 @@ public class UserStorageManager implements AutoCloseable{
                 storageManager.storeRoot();
             }
             this.root = existingRoot;
+            root.getUsers().forEach(user -> selections.put(user.getUuid(),
+                    UserSelection.of(user.getUuid(), user.getIds(), modifiedAtOf(user))));
             
         } catch (Exception e) {
             throw new RuntimeException("Fehler beim Initialisieren von UserStorageManager", e);
@@ -61,31 +86,84 @@ public class UserStorageManager implements AutoCloseable{
      * Speichert den übergebenen Nutzer im eingebetteten Speicher.
      * <p>
      * Falls der Nutzer bereits existiert (basierend auf UUID), wird er aktualisiert.
+     * Gespeichert wird eine Kopie mit dem aktuellen Stand der ausgewählten Klausuren. Der
+     * Änderungszeitpunkt wird nur fortgeschrieben, wenn sich die Auswahl tatsächlich geändert hat.
      *
      * @param user der zu speichernde {@link User}
      */
-    public void save(User user) {
-        root.addOrUpdateUser(user);
+    public synchronized void save(User user) {
+        if (user == null || user.getUuid() == null) {
+            return;
+        }
+        User copy = copyOf(user);
+        UserSelection selection = UserSelection.of(copy.getUuid(), copy.getIds(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        UserSelection previous = selections.get(copy.getUuid());
+        if (previous != null && previous.version() == selection.version()) {
+            selection = new UserSelection(selection.uuid(), selection.examIds(), selection.version(), previous.modifiedAt());
+        }
+        copy.setModifiedAt(selection.modifiedAt());
+        root.addOrUpdateUser(copy);
         storageManager.store(root.getUsers());
+        selections.put(copy.getUuid(), selection);
     }
 
     /**
      * Gibt alle gespeicherten Nutzer zurück.
      *
-     * @return Liste aller {@link User}-Objekte
+     * @return Liste mit Kopien aller {@link User}-Objekte
      */
-    public List<User> getAllUsers() {
-        return root.getUsers();
+    public synchronized List<User> getAllUsers() {
+        return root.getUsers().stream().map(UserStorageManager::copyOf).toList();
     }
     
     /**
      * Sucht einen Nutzer anhand seiner UUID.
      *
      * @param uuid eindeutige Kennung des Nutzers
-     * @return {@link User}-Objekt oder {@code null}, falls nicht gefunden
+     * @return Kopie des {@link User}-Objekts oder {@code null}, falls nicht gefunden
      */
     public User getUserById(UUID uuid) {
-        return root.getUserByUUID(uuid);
+        UserSelection selection = getSelection(uuid);
+        if (selection == null) {
+            return null;
+        }
+        User user = new User(uuid, selection.idSet());
+        user.setModifiedAt(selection.modifiedAt());
+        return user;
+    }
+
+    /**
+     * Gibt den zuletzt gespeicherten Stand der Auswahl eines Nutzers zurück.
+     * <p>
+     * Die Abfrage liest nur den Index im Speicher und erzeugt keine Kopien.
+     *
+     * @param uuid eindeutige Kennung des Nutzers
+     * @return Stand der Auswahl oder {@code null}, falls der Nutzer nicht gefunden wurde
+     */
+    public UserSelection getSelection(UUID uuid) {
+        return uuid != null ? selections.get(uuid) : null;
+    }
+
+    /**
+     * Erstellt eine unabhängige Kopie eines Nutzers.
+     *
+     * @param user der zu kopierende Nutzer
+     * @return Kopie mit eigener Menge der ausgewählten Klausuren
+     */
+    private static User copyOf(User user) {
+        User copy = new User(user.getUuid(), new HashSet<>(user.getIds()));
+        copy.setModifiedAt(user.getModifiedAt());
+        return copy;
+    }
+
+    /**
+     * Gibt den gespeicherten Änderungszeitpunkt eines Nutzers zurück.
+     *
+     * @param user gespeicherter Nutzer
+     * @return Änderungszeitpunkt oder {@link Instant#EPOCH} bei Datensätzen ohne Zeitpunkt
+     */
+    private static Instant modifiedAtOf(User user) {
+        return user.getModifiedAt() != null ? user.getModifiedAt() : Instant.EPOCH;
     }
 
     /**
@@ -94,7 +172,8 @@ public class UserStorageManager implements AutoCloseable{
      * @throws Exception falls beim Herunterfahren ein Fehler auftritt
      */
 	@Override
-	public void close() throws Exception {
+	@PreDestroy
+	public synchronized void close() throws Exception {
 		storageManager.shutdown();
 	}
 }
\ No newline at end of file
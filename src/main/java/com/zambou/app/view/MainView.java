@@ -13,9 +13,10 @@ import com.zambou.app.component.ExportButton;
 import com.zambou.app.component.FilterForm;
 import com.zambou.app.component.UserLinkField;
 import com.zambou.app.model.User;
-import com.zambou.app.service.CSVLoader;
 import com.zambou.app.service.CalendarService;
+import com.zambou.app.service.ExamCatalog;
 import com.zambou.app.service.ExamDB;
+import com.zambou.app.service.SelectionMode;
 import com.zambou.app.service.UserSessionService;
 import com.zambou.app.storage.UserStorageManager;
 
@@ -23,9 +24,10 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.vaadin.stefan.fullcalendar.FullCalendar;
 
-import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
@@ -34,7 +36,7 @@ import java.util.UUID;
  * Hauptansicht für die Klausurplan-Anwendung.
  * <p>
  * Diese View wird unter dem Pfad {@code /klausurplan} geladen und initialisiert beim ersten Aufruf
- * die Benutzerinstanz, lädt die Prüfungsdaten aus einer CSV-Datei und baut die Benutzeroberfläche
+ * die Benutzerinstanz, liest die Prüfungsdaten aus dem gemeinsamen {@link ExamCatalog} und baut die Benutzeroberfläche
  * mit Filterformular, Exportfunktion und Kalenderdarstellung dynamisch auf.
  * 
  * @author Yvan Zambou
@@ -47,17 +49,39 @@ public class MainView extends VerticalLayout implements BeforeEnterObserver {
     private static final long serialVersionUID = 1L;
     private static final Logger log = LoggerFactory.getLogger(MainView.class);
 
+    /** Gemeinsamer, anwendungsweiter Klausurkatalog */
+    private final ExamCatalog catalog;
+
+    /** Konfigurierte Variante der Hervorhebung ausgewählter Klausuren */
+    private final SelectionMode selectionMode;
+
+    /** Gemeinsamer, anwendungsweiter Nutzerspeicher */
+    private final UserStorageManager storageManager;
+
+    /** Gemeinsamer Zeitgeber für verzögerte Aktualisierungen der Oberfläche */
+    private final transient TaskScheduler scheduler;
+
     /**
      * Konstruktor der View. Die Initialisierung erfolgt im {@link #beforeEnter(BeforeEnterEvent)}-Callback.
+     *
+     * @param catalog        der gemeinsame Klausurkatalog
+     * @param selectionMode  Variante der Hervorhebung ausgewählter Klausuren
+     * @param storageManager der gemeinsame Nutzerspeicher
+     * @param scheduler      gemeinsamer Zeitgeber für verzögerte Aktualisierungen
      */
-    public MainView() {
+    public MainView(ExamCatalog catalog, @Value("${klausurplan.calendar.selection:CLIENT}") SelectionMode selectionMode,
+            UserStorageManager storageManager, TaskScheduler scheduler) {
+        this.catalog = catalog;
+        this.selectionMode = selectionMode;
+        this.storageManager = storageManager;
+        this.scheduler = scheduler;
         // Aufbau in beforeEnter()
     }
 
     /**
      * Wird vor dem Betreten der View aufgerufen.
      * <p>
-     * Initialisiert den Nutzer (neu oder aus Session), lädt die Prüfungsdaten,
+     * Initialisiert den Nutzer (neu oder aus Session), holt den aktuellen Katalog-Schnappschuss,
      * erstellt die UI-Komponenten und fügt sie zur Ansicht hinzu.
      *
      * @param event das Navigationsevent mit Pfad- und Parameterinformationen
@@ -65,31 +89,24 @@ public class MainView extends VerticalLayout implements BeforeEnterObserver {
     @Override
     public void beforeEnter(BeforeEnterEvent event) {
     	
-    	try (UserStorageManager storageManager = new UserStorageManager()) {
-            UUID uuid = loadOrCreateUser(event, storageManager);
+    	try {
+            UUID uuid = loadOrCreateUser(event);
 
             String userLink = getUserLink(event, uuid);
             String icsLink = getICSLink(uuid.toString());
 
             UI.getCurrent().getPage().getHistory().replaceState(null, "klausurplan");
 
-            try {
-            	String csvPath = CSVLoader.getTempFilePath("csv/klausuren.csv");
-                CalendarService service = new CalendarService(csvPath);
-                // CalendarService2 service2 = new CalendarService2(csvPath);
-                ExamDB db = service.getDb();
-                FullCalendar calendar = service.getCalendar();
-                ExportButton exportButton = new ExportButton(db, icsLink);
-                UserLinkField uLinkField = new UserLinkField(userLink);
-                FilterForm filterForm = new FilterForm(db, calendar, service);
-                CalendarNavBar calendarNavBar = new CalendarNavBar(calendar, csvPath);
-
-                service.setExportButton(exportButton);
-                add(filterForm, uLinkField, exportButton, calendarNavBar, calendar);
-                
-            } catch (IOException e) {
-                log.error("Fehler beim Laden des Kalenders", e);
-            }
+            ExamDB db = catalog.getSnapshot();
+            CalendarService service = new CalendarService(db, selectionMode);
+            FullCalendar calendar = service.getCalendar();
+            ExportButton exportButton = new ExportButton(db, icsLink);
+            UserLinkField uLinkField = new UserLinkField(userLink);
+            FilterForm filterForm = new FilterForm(db, service, scheduler);
+            CalendarNavBar calendarNavBar = new CalendarNavBar(calendar, db);
+
+            service.setExportButton(exportButton);
+            add(filterForm, uLinkField, exportButton, calendarNavBar, calendar);
         } catch (Exception e) {
             log.error("Fehler beim Zugriff auf den User-Speicher", e);
         }
@@ -100,11 +117,10 @@ public class MainView extends VerticalLayout implements BeforeEnterObserver {
      * <p>
      * Der Nutzer wird anschließend in der {@link VaadinSession} gespeichert.
      *
-     * @param event           das Navigationsevent mit URL-Parametern
-     * @param storageManager  Zugriff auf die persistente Nutzerverwaltung
+     * @param event das Navigationsevent mit URL-Parametern
      * @return die UUID des geladenen oder neu erstellten Nutzers
      */
-    private UUID loadOrCreateUser(BeforeEnterEvent event, UserStorageManager storageManager) {
+    private UUID loadOrCreateUser(BeforeEnterEvent event) {
         User sessionUser = UserSessionService.getUser();
         String userId = getQueryParam(event, "userId");
         UUID uuid = isValidUUID(userId) ? UUID.fromString(userId) : (sessionUser != null ? sessionUser.getUuid() : UUID.randomUUID());
@@ -25,4 +25,9 @@ public final class AppConfig {
      * Virtuelles Verzeichnis im eingebetteten Dateisystem zur Ablage von Speicherstrukturen.
      */
     public static final String VIRTUAL_DIRECTORY = "storage";
+
+    /**
+     * Klassenpfad-Ressource mit dem Klausurplan, aus der der gemeinsame Klausurkatalog geladen wird.
+     */
+    public static final String EXAM_CSV_RESOURCE = "csv/klausuren.csv";
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.zambou.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.zambou.app.model.Exam;
+import com.zambou.app.model.ExamColumns;
+
+/**
+ * Tests für {@link ExamCsvParser}: Spaltenzuordnung, Anführungszeichen, Auflösung des Termins,
+ * Fehlermeldungen mit Zeilennummer sowie eine Durchsatzmessung gegenüber dem früheren Einlesen
+ * mit OpenCSV. Die Durchsatzmessung läuft nur im Maven-Profil {@code benchmark}
+ * ({@code mvn test -Pbenchmark}).
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+class ExamCsvParserTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ExamCsvParserTest.class);
+
+	private static final int YEAR = 2025;
+
+	/** Größe des synthetischen Plans für die Durchsatzmessung */
+	private static final int BENCHMARK_ROWS = 150_000;
+
+	/** Messdurchläufe je Verfahren; der beste Durchlauf wird protokolliert */
+	private static final int BENCHMARK_ROUNDS = 5;
+
+	private static ExamColumns parse(String csv) throws IOException {
+		return ExamCsvParser.parse(new StringReader(csv), YEAR);
+	}
+
+	@Test
+	void readsFieldsInHeaderOrderAndIgnoresUnknownColumns() throws IOException {
+		ExamColumns columns = parse("""
+				NAME,ID,EXTRA,DATUM,ZEIT,GRUPPEN,PRUEFER,RAEUME
+				Mathematik 1,7,x,"Do., 26.06.",10:30,"I1,I2",Ada Lovelace,"S101,S102"
+				""");
+
+		assertThat(columns.size()).isEqualTo(1);
+		Exam exam = columns.getExams().get(0);
+		assertThat(exam.getId()).isEqualTo(7);
+		assertThat(exam.getName()).isEqualTo("Mathematik 1");
+		assertThat(exam.getExaminer()).isEqualTo("Ada Lovelace");
+		assertThat(exam.getAllGroupsAsList()).containsExactly("I1", "I2");
+		assertThat(exam.getAllRoomsAsList()).containsExactly("S101", "S102");
+		assertThat(exam.getStart()).isEqualTo(LocalDateTime.of(YEAR, 6, 26, 10, 30));
+		assertThat(exam.getEnd()).isEqualTo(LocalDateTime.of(YEAR, 6, 26, 13, 0));
+	}
+
+	@Test
+	void handlesQuotesCrlfAndByteOrderMark() throws IOException {
+		ExamColumns columns = parse("\uFEFFID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME\r\n"
+				+ "1,\"Mo., 30.06.\",13:00,M1,\"Seminar \"\"Recht\"\", Teil 2\",  Grace Hopper,S5\r\n"
+				+ "\r\n"
+				+ "2,\"Di., 01.07.\",8:00,M2,Statistik,Alan Turing,S6");
+
+		assertThat(columns.size()).isEqualTo(2);
+		assertThat(columns.getExams().get(0).getName()).isEqualTo("Seminar \"Recht\", Teil 2");
+		assertThat(columns.getExams().get(0).getExaminer()).isEqualTo("Grace Hopper");
+		assertThat(columns.getExams().get(1).getStart()).isEqualTo(LocalDateTime.of(YEAR, 7, 1, 8, 0));
+	}
+
+	@Test
+	void resolvesDatesInTheGivenYear() throws IOException {
+		String csv = "ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME\n1,\"Fr., 28.02.\",9:00,A,B,C,D\n";
+
+		assertThat(ExamCsvParser.parse(new StringReader(csv), 2024).getExams().get(0).getStartDate())
+				.isEqualTo(LocalDateTime.of(2024, 2, 28, 9, 0).toLocalDate());
+		assertThat(ExamCsvParser.parse(new StringReader(csv), 2025).getExams().get(0).getStartDate())
+				.isEqualTo(LocalDateTime.of(2025, 2, 28, 9, 0).toLocalDate());
+	}
+
+	@Test
+	void reportsMalformedLinesWithLineNumbers() {
+		String header = "ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME\n";
+		String valid = "1,\"Mo., 30.06.\",13:00,M1,A,B,C\n";
+
+		assertThatThrownBy(() -> parse(header + valid + "x,\"Mo., 30.06.\",13:00,M1,A,B,C\n"))
+				.isInstanceOfSatisfying(CsvParseException.class, e -> assertThat(e.getLineNumber()).isEqualTo(3))
+				.hasMessageContaining("Ungültige ID");
+		assertThatThrownBy(() -> parse(header + valid + "2,\"Mo., 30.06.\",13:00,M1,A,B\n"))
+				.isInstanceOfSatisfying(CsvParseException.class, e -> assertThat(e.getLineNumber()).isEqualTo(3))
+				.hasMessageContaining("Spalten");
+		assertThatThrownBy(() -> parse(header + valid + "2,\"Mo., 31.06.\",13:00,M1,A,B,C\n"))
+				.isInstanceOfSatisfying(CsvParseException.class, e -> assertThat(e.getLineNumber()).isEqualTo(3))
+				.hasMessageContaining("Ungültiges Datum");
+		assertThatThrownBy(() -> parse(header + valid + valid))
+				.isInstanceOfSatisfying(CsvParseException.class, e -> assertThat(e.getLineNumber()).isEqualTo(3))
+				.hasMessageContaining("bereits in Zeile 2");
+		assertThatThrownBy(() -> parse("ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER\n"))
+				.isInstanceOfSatisfying(CsvParseException.class, e -> assertThat(e.getLineNumber()).isEqualTo(1))
+				.hasMessageContaining("RAEUME");
+		assertThatThrownBy(() -> parse(""))
+				.isInstanceOf(CsvParseException.class)
+				.hasMessageContaining("Kopfzeile fehlt");
+	}
+
+	/**
+     * Vergleicht den Durchsatz mit dem früheren Einlesen über OpenCSV ({@code CsvToBean} mit
+     * {@code @CsvBindByName}) an einem synthetischen Plan mit 150.000 Zeilen.
+     * <p>
+     * OpenCSV bindet dabei nur die Felder, ohne den Termin aufzulösen. Die Zeiten werden protokolliert,
+     * aber nicht geprüft, damit die Messung auf langsamen Build-Rechnern nicht schwankt; geprüft wird,
+     * dass beide Verfahren dieselben Klausuren liefern.
+     */
+	@Test
+	@Tag("benchmark")
+	void measuresThroughputAgainstOpenCsv() throws IOException {
+		String csv = syntheticPlan(BENCHMARK_ROWS);
+
+		long bestParser = Long.MAX_VALUE;
+		long bestOpenCsv = Long.MAX_VALUE;
+		ExamColumns columns = null;
+		List<OpenCsvExam> beans = null;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			long start = System.nanoTime();
+			columns = parse(csv);
+			bestParser = Math.min(bestParser, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			beans = new CsvToBeanBuilder<OpenCsvExam>(new StringReader(csv)).withType(OpenCsvExam.class).build().parse();
+			bestOpenCsv = Math.min(bestOpenCsv, System.nanoTime() - start);
+		}
+
+		double megabytes = csv.length() / 1e6;
+		log.info(String.format("ExamCsvParser: %5d ms (%6.1f MB/s, %,9.0f Zeilen/s)", bestParser / 1_000_000,
+				megabytes / (bestParser / 1e9), BENCHMARK_ROWS / (bestParser / 1e9)));
+		log.info(String.format("OpenCSV:       %5d ms (%6.1f MB/s, %,9.0f Zeilen/s)", bestOpenCsv / 1_000_000,
+				megabytes / (bestOpenCsv / 1e9), BENCHMARK_ROWS / (bestOpenCsv / 1e9)));
+
+		assertThat(columns.size()).isEqualTo(BENCHMARK_ROWS);
+		assertThat(beans).hasSize(BENCHMARK_ROWS);
+		for (int row = 0; row < BENCHMARK_ROWS; row += 997) {
+			Exam exam = columns.getExams().get(row);
+			OpenCsvExam bean = beans.get(row);
+			assertThat(exam.getId()).isEqualTo(bean.id);
+			assertThat(exam.getName()).isEqualTo(bean.name);
+			assertThat(exam.getGroups()).isEqualTo(bean.groups);
+			assertThat(exam.getRooms()).isEqualTo(bean.rooms);
+		}
+	}
+
+	/**
+     * Erzeugt einen Plan im Format der Hochschule mit mehreren Fakultäten.
+     *
+     * @param rows Anzahl der Klausuren
+     * @return CSV-Inhalt mit Kopfzeile
+     */
+	private static String syntheticPlan(int rows) {
+		String[] days = { "Mo.", "Di.", "Mi.", "Do.", "Fr." };
+		StringBuilder csv = new StringBuilder(rows * 96).append("ID,DATUM,ZEIT,GRUPPEN,NAME,PRUEFER,RAEUME\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append(i + 1).append(",\"")
+					.append(days[i % days.length]).append(", ")
+					.append(String.format("%02d.%02d.", 1 + i % 28, 1 + i / 28 % 12)).append("\",")
+					.append(8 + i % 10).append(":").append(i % 2 == 0 ? "00" : "30").append(",\"")
+					.append("I").append(i % 7 + 1).append(",E").append(i % 5 + 1).append("-TI\",")
+					.append("Modul ").append(i % 1500).append(" Teil ").append(i % 3 + 1).append(',')
+					.append("Prüfer ").append(i % 400).append(",\"")
+					.append("S").append(100 + i % 60).append(",Dynexite\"\n");
+		}
+		return csv.toString();
+	}
+
+	/**
+     * Zeile des Klausurplans, wie sie vor dem eigenen Parser mit OpenCSV gebunden wurde.
+     */
+	public static class OpenCsvExam {
+
+		@CsvBindByName(column = "ID")
+		int id;
+
+		@CsvBindByName(column = "DATUM")
+		String date;
+
+		@CsvBindByName(column = "ZEIT")
+		String time;
+
+		@CsvBindByName(column = "GRUPPEN")
+		String groups;
+
+		@CsvBindByName(column = "NAME")
+		String name;
+
+		@CsvBindByName(column = "PRUEFER")
+		String examiner;
+
+		@CsvBindByName(column = "RAEUME")
+		String rooms;
+
+		public OpenCsvExam() {
+		}
+	}
+}
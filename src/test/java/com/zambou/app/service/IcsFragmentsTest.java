@@ -0,0 +1,162 @@
+package com.zambou.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zambou.app.model.Exam;
+import com.zambou.app.model.ExamColumns;
+
+/**
+ * Tests für {@link IcsFragments}: Zusammenstellen einer Datei aus Kopf, ausgewählten Abschnitten
+ * und Abschluss sowie eine Durchsatzmessung von {@code build}, {@code feed} und {@code write} für
+ * Abonnements mit einigen tausend {@code VEVENT}s. Die Durchsatzmessung läuft nur im Maven-Profil
+ * {@code benchmark} ({@code mvn test -Pbenchmark}).
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+class IcsFragmentsTest {
+
+	private static final Logger log = LoggerFactory.getLogger(IcsFragmentsTest.class);
+
+	private static final Instant LOADED_AT = Instant.parse("2025-06-01T08:00:00Z");
+
+	/** Größe des synthetischen Katalogs für die Durchsatzmessung */
+	private static final int BENCHMARK_EXAMS = 5_000;
+
+	/** Messdurchläufe je Schritt; der erste dient dem Aufwärmen, der beste wird protokolliert */
+	private static final int BENCHMARK_ROUNDS = 10;
+
+	/** Anzahl der je Durchlauf zusammengestellten und geschriebenen Dateien */
+	private static final int FEEDS_PER_ROUND = 200;
+
+	/**
+     * Erzeugt einen Katalog mit mehreren Fakultäten, Umlauten und langen Beschreibungen, die gefaltet werden.
+     *
+     * @param size Anzahl der Klausuren
+     * @return Klausuren in Katalogreihenfolge
+     */
+	private static List<Exam> syntheticExams(int size) {
+		ExamColumns.Builder builder = new ExamColumns.Builder();
+		for (int i = 0; i < size; i++) {
+			LocalDateTime start = LocalDateTime.of(2025, 1 + i / 28 % 12, 1 + i % 28, 8 + i % 10, i % 2 == 0 ? 0 : 30);
+			builder.add(i + 1, "", "", "I" + (i % 7 + 1) + ",E" + (i % 5 + 1) + "-TI,BWL" + (i % 3 + 1),
+					"Modul " + (i % 1500) + " Prüfung Teil " + (i % 3 + 1), "Prüfer " + (i % 400),
+					"S" + (100 + i % 60) + ",Dynexite", start);
+		}
+		return builder.build().getExams();
+	}
+
+	private static byte[] write(ByteBuffer[] buffers) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IcsFragments.write(buffers, out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void assemblesHeaderSelectedEventsAndFooter() throws IOException {
+		IcsFragments fragments = IcsFragments.build(syntheticExams(3), LOADED_AT);
+
+		ByteBuffer[] buffers = fragments.feed(new int[] { 2, 0 });
+		byte[] bytes = write(buffers);
+		String ics = new String(bytes, StandardCharsets.UTF_8);
+
+		assertThat(IcsFragments.length(buffers)).isEqualTo(bytes.length);
+		assertThat(ics).startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n").endsWith("END:VCALENDAR\r\n");
+		assertThat(ics).contains("DTSTAMP:20250601T080000Z\r\n");
+		assertThat(ics.indexOf("UID:exam-3\r\n")).isPositive().isLessThan(ics.indexOf("UID:exam-1\r\n"));
+		assertThat(ics).doesNotContain("UID:exam-2\r\n");
+	}
+
+	@Test
+	void sharesFragmentsBetweenFeeds() {
+		IcsFragments fragments = IcsFragments.build(syntheticExams(2), LOADED_AT);
+
+		ByteBuffer first = fragments.feed(new int[] { 1 })[1];
+		ByteBuffer second = fragments.feed(new int[] { 0, 1 })[2];
+
+		assertThat(second.array()).isSameAs(first.array());
+		assertThat(second.arrayOffset() + second.position()).isEqualTo(first.arrayOffset() + first.position());
+		assertThat(second.remaining()).isEqualTo(first.remaining());
+	}
+
+	/**
+     * Misst die einmalige Formatierung eines Katalogs mit 5.000 Klausuren sowie das Zusammenstellen
+     * und Schreiben von Abonnements mit allen bzw. 50 Klausuren.
+     * <p>
+     * Die Zeiten werden protokolliert, aber nicht geprüft, damit die Messung auf langsamen
+     * Build-Rechnern nicht schwankt; geprüft wird, dass die geschriebene Länge der berechneten entspricht.
+     */
+	@Test
+	@Tag("benchmark")
+	void measuresThroughputForThousandsOfEvents() throws IOException {
+		List<Exam> exams = syntheticExams(BENCHMARK_EXAMS);
+		int[] all = IntStream.range(0, BENCHMARK_EXAMS).toArray();
+		int[] typical = IntStream.range(0, 50).map(i -> i * (BENCHMARK_EXAMS / 50)).toArray();
+
+		long bestBuild = Long.MAX_VALUE;
+		long bestAll = Long.MAX_VALUE;
+		long bestTypical = Long.MAX_VALUE;
+		IcsFragments fragments = null;
+		CountingOutputStream out = new CountingOutputStream();
+		long expected = 0;
+		for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+			long start = System.nanoTime();
+			fragments = IcsFragments.build(exams, LOADED_AT);
+			bestBuild = Math.min(bestBuild, System.nanoTime() - start);
+
+			out.count = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < FEEDS_PER_ROUND; i++) {
+				IcsFragments.write(fragments.feed(all), out);
+			}
+			bestAll = Math.min(bestAll, System.nanoTime() - start);
+			expected = IcsFragments.length(fragments.feed(all)) * FEEDS_PER_ROUND;
+			assertThat(out.count).isEqualTo(expected);
+
+			start = System.nanoTime();
+			for (int i = 0; i < FEEDS_PER_ROUND; i++) {
+				IcsFragments.write(fragments.feed(typical), out);
+			}
+			bestTypical = Math.min(bestTypical, System.nanoTime() - start);
+		}
+
+		long allBytes = IcsFragments.length(fragments.feed(all));
+		log.info(String.format("build:        %6.1f ms für %d VEVENTs (%,10.0f VEVENTs/s, %.1f MB)", bestBuild / 1e6,
+				BENCHMARK_EXAMS, BENCHMARK_EXAMS / (bestBuild / 1e9), allBytes / 1e6));
+		log.info(String.format("feed+write:   %6.3f ms je Datei mit %d VEVENTs (%,8.0f MB/s)", bestAll / 1e6 / FEEDS_PER_ROUND,
+				all.length, allBytes * FEEDS_PER_ROUND / 1e6 / (bestAll / 1e9)));
+		log.info(String.format("feed+write:   %6.3f ms je Datei mit %d VEVENTs (%,8.0f Dateien/s)",
+				bestTypical / 1e6 / FEEDS_PER_ROUND, typical.length, FEEDS_PER_ROUND / (bestTypical / 1e9)));
+	}
+
+	/** Zählt die geschriebenen Bytes, ohne sie aufzubewahren */
+	private static final class CountingOutputStream extends OutputStream {
+
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.zambou.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für {@link IcsWriter}: Zeilenenden, Maskierung von {@code TEXT}-Werten und Zeilenfaltung
+ * nach RFC 5545, ohne UTF-8-Zeichen oder Escape-Sequenzen zu trennen.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+class IcsWriterTest {
+
+	/** Maximale Länge einer Zeile in Oktetten, ohne {@code CRLF} */
+	private static final int MAX_LINE_OCTETS = 75;
+
+	@FunctionalInterface
+	private interface Content {
+		void writeTo(IcsWriter writer) throws IOException;
+	}
+
+	private static byte[] write(Content content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IcsWriter writer = new IcsWriter(out);
+		content.writeTo(writer);
+		writer.flush();
+		return out.toByteArray();
+	}
+
+	/**
+     * Zerlegt die Ausgabe an {@code CRLF} in physische Zeilen und prüft, dass jede Zeile höchstens
+     * 75 Oktette lang und für sich gültiges UTF-8 ist.
+     */
+	private static List<byte[]> physicalLines(byte[] bytes) {
+		List<byte[]> lines = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i + 1 < bytes.length; i++) {
+			if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+				lines.add(Arrays.copyOfRange(bytes, start, i));
+				start = i + 2;
+				i++;
+			}
+		}
+		assertThat(start).as("Ausgabe endet mit CRLF").isEqualTo(bytes.length);
+		for (byte[] line : lines) {
+			assertThat(line.length).as("Zeilenlänge in Oktetten").isLessThanOrEqualTo(MAX_LINE_OCTETS);
+			assertThatCode(() -> StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(ByteBuffer.wrap(line)))
+					.as("Zeile ist vollständiges UTF-8")
+					.doesNotThrowAnyException();
+		}
+		return lines;
+	}
+
+	/** Entfaltet die Ausgabe: {@code CRLF} gefolgt von einem Leerzeichen wird entfernt. */
+	private static String unfold(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8).replace("\r\n ", "");
+	}
+
+	@Test
+	void writesPropertiesAndComponentsWithCrlf() throws IOException {
+		byte[] bytes = write(writer -> writer.begin("VEVENT").property("UID", "exam-1").end("VEVENT"));
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("BEGIN:VEVENT\r\nUID:exam-1\r\nEND:VEVENT\r\n");
+	}
+
+	@Test
+	void escapesTextValues() throws IOException {
+		byte[] bytes = write(writer -> writer.text("SUMMARY", "a\\b;c,d\r\ne"));
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("SUMMARY:a\\\\b\\;c\\,d\\ne\r\n");
+	}
+
+	@Test
+	void doesNotEscapePlainProperties() throws IOException {
+		byte[] bytes = write(writer -> writer.property("X-VALUE", "a;b,c"));
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("X-VALUE:a;b,c\r\n");
+	}
+
+	@Test
+	void foldsLongLinesAfter75Octets() throws IOException {
+		String value = "x".repeat(200);
+		byte[] bytes = write(writer -> writer.text("DESCRIPTION", value));
+
+		List<byte[]> lines = physicalLines(bytes);
+		assertThat(lines).hasSizeGreaterThan(1);
+		assertThat(lines.get(0)).hasSize(MAX_LINE_OCTETS);
+		for (byte[] continuation : lines.subList(1, lines.size())) {
+			assertThat(continuation[0]).isEqualTo((byte) ' ');
+		}
+		assertThat(unfold(bytes)).isEqualTo("DESCRIPTION:" + value + "\r\n");
+	}
+
+	@Test
+	void doesNotSplitMultiByteCharacters() throws IOException {
+		// zwei, drei und vier Oktette je Zeichen, gegen jede mögliche Faltposition verschoben
+		for (String character : List.of("ä", "€", "📅")) {
+			for (int shift = 0; shift < 4; shift++) {
+				String value = "a".repeat(shift) + character.repeat(60);
+				byte[] bytes = write(writer -> writer.text("LOCATION", value));
+
+				physicalLines(bytes);
+				assertThat(unfold(bytes)).isEqualTo("LOCATION:" + value + "\r\n");
+			}
+		}
+	}
+
+	@Test
+	void doesNotSplitEscapeSequences() throws IOException {
+		// "X:" und 72 Zeichen ergeben 74 Oktette; die Maskierung passt nicht mehr in die Zeile
+		String value = "a".repeat(72) + ",b";
+		byte[] bytes = write(writer -> writer.text("X", value));
+
+		List<byte[]> lines = physicalLines(bytes);
+		assertThat(new String(lines.get(0), StandardCharsets.UTF_8)).isEqualTo("X:" + "a".repeat(72));
+		assertThat(new String(lines.get(1), StandardCharsets.UTF_8)).isEqualTo(" \\,b");
+	}
+
+	@Test
+	void replacesUnpairedSurrogates() throws IOException {
+		byte[] bytes = write(writer -> writer.text("SUMMARY", "a\uD83Db"));
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("SUMMARY:a?b\r\n");
+	}
+
+	@Test
+	void writesValuesLargerThanTheBuffer() throws IOException {
+		String value = "Prüfung ".repeat(2000);
+		byte[] bytes = write(writer -> writer.text("DESCRIPTION", value));
+
+		physicalLines(bytes);
+		assertThat(unfold(bytes)).isEqualTo("DESCRIPTION:" + value + "\r\n");
+	}
+}
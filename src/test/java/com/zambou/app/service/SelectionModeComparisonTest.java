@@ -0,0 +1,197 @@
+package com.zambou.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vaadin.stefan.fullcalendar.Entry;
+import org.vaadin.stefan.fullcalendar.FullCalendar;
+import org.vaadin.stefan.fullcalendar.FullCalendarBuilder;
+import org.vaadin.stefan.fullcalendar.dataprovider.EntryProvider;
+
+import com.vaadin.flow.server.VaadinSession;
+import com.zambou.app.model.Exam;
+import com.zambou.app.model.User;
+
+import utils.AppConfig;
+
+/**
+ * Vergleich der drei Darstellungsvarianten der Exportauswahl ({@link SelectionMode}) am
+ * mitgelieferten Klausurplan.
+ * <p>
+ * Je Variante werden alle Klausuren als Einträge erzeugt (Abruf eines Zeitraums) und anschließend
+ * jede Klausur einmal aus- und wieder abgewählt. Gemessen werden die an den Browser gesendeten
+ * Bytes, die CPU-Zeit des Server-Threads sowie die dabei allozierten Bytes; die Werte werden zum
+ * Vergleich protokolliert. Geprüft wird die Rangfolge der gesendeten Daten, die die Varianten begründet.
+ *
+ * @author Yvan Zambou
+ * @version 1.0
+ */
+class SelectionModeComparisonTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SelectionModeComparisonTest.class);
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/** Messdurchläufe je Variante; CPU-Zeit und Allokation des besten Durchlaufs werden protokolliert */
+	private static final int ROUNDS = 5;
+
+	private ExamDB db;
+
+	private User user;
+
+	/** Sitzung des Tests; {@link VaadinSession#setCurrent} hält sie nur schwach referenziert */
+	private VaadinSession session;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		try (Reader reader = new InputStreamReader(CSVLoader.openResource(AppConfig.EXAM_CSV_RESOURCE), StandardCharsets.UTF_8)) {
+			db = new ExamDB(ExamCsvParser.parse(reader, ExamCsvParser.currentYear()), 0, ExamCsvParser.currentYear(), Instant.now());
+		}
+		Set<Integer> ids = new HashSet<>();
+		List<Exam> exams = db.getAllExams();
+		for (int row = 0; row < exams.size(); row += 2) {
+			ids.add(exams.get(row).getId());
+		}
+		user = new User(null, ids);
+
+		User sessionUser = user;
+		session = new VaadinSession(null) {
+			@Override
+			public <T> T getAttribute(Class<T> type) {
+				return type == User.class ? type.cast(sessionUser) : null;
+			}
+		};
+		VaadinSession.setCurrent(session);
+	}
+
+	@AfterEach
+	void tearDown() {
+		VaadinSession.setCurrent(null);
+	}
+
+	/** Ergebnis einer Variante je Durchlauf; CPU-Zeiten in Nanosekunden */
+	private record Measurement(long renderPayload, long togglePayload, long renderCpu, long toggleCpu,
+			long renderAllocated, long toggleAllocated) {
+
+		/** Übernimmt je Wert den kleineren von zwei Durchläufen, um Störungen durch JIT und GC zu dämpfen */
+		Measurement best(Measurement other) {
+			return other == null ? this
+					: new Measurement(renderPayload, togglePayload, Math.min(renderCpu, other.renderCpu),
+							Math.min(toggleCpu, other.toggleCpu), Math.min(renderAllocated, other.renderAllocated),
+							Math.min(toggleAllocated, other.toggleAllocated));
+		}
+	}
+
+	private Measurement run(SelectionMode mode) {
+		FullCalendar calendar = FullCalendarBuilder.create().build();
+		calendar.setEntryProvider(EntryProvider.fromCallbacks(query -> Stream.empty(), id -> null));
+		SelectionRenderer renderer = mode.createRenderer(calendar, db);
+		renderer.attached();
+
+		long cpuBefore = THREADS.getCurrentThreadCpuTime();
+		long allocatedBefore = allocatedBytes();
+		renderer.rangeFetched();
+		List<Entry> entries = db.getAllExams().stream()
+				.map(ex -> renderer.render(db.getEntryTemplate(ex.getId()).newEntry(), ex.getId()))
+				.toList();
+		long renderAllocated = allocatedBytes() - allocatedBefore;
+		long renderCpu = THREADS.getCurrentThreadCpuTime() - cpuBefore;
+		long renderPayload = InteractionMetrics.jsonBytes(entries);
+
+		long togglePayload = 0;
+		long toggleCpu = 0;
+		long toggleAllocated = 0;
+		for (Exam exam : db.getAllExams()) {
+			boolean selected = user.getIds().contains(exam.getId());
+			for (boolean state : new boolean[] { !selected, selected }) {
+				cpuBefore = THREADS.getCurrentThreadCpuTime();
+				allocatedBefore = allocatedBytes();
+				IntSupplier payload = renderer.selectionChanged(exam.getId(), state);
+				toggleAllocated += allocatedBytes() - allocatedBefore;
+				toggleCpu += THREADS.getCurrentThreadCpuTime() - cpuBefore;
+				togglePayload += payload.getAsInt();
+			}
+		}
+		return new Measurement(renderPayload, togglePayload, renderCpu, toggleCpu, renderAllocated, toggleAllocated);
+	}
+
+	private static long allocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean threads) {
+			return threads.getCurrentThreadAllocatedBytes();
+		}
+		return 0;
+	}
+
+	@Test
+	void comparesSelectionModes() {
+		Map<SelectionMode, Measurement> results = new EnumMap<>(SelectionMode.class);
+		for (int round = 0; round < ROUNDS; round++) {
+			for (SelectionMode mode : SelectionMode.values()) {
+				results.put(mode, run(mode).best(results.get(mode)));
+			}
+		}
+
+		int toggles = db.getAllExams().size() * 2;
+		results.forEach((mode, m) -> log.info(String.format(
+				"%-6s Zeitraum: %8d Bytes gesendet, %7.2f ms CPU, %10d Bytes alloziert"
+						+ " | Auswahl je Änderung: %6.1f Bytes gesendet, %6.1f µs CPU, %8.1f Bytes alloziert",
+				mode, m.renderPayload(), m.renderCpu() / 1e6, m.renderAllocated(),
+				(double) m.togglePayload() / toggles, m.toggleCpu() / 1e3 / toggles, (double) m.toggleAllocated() / toggles)));
+
+		Measurement staticMode = results.get(SelectionMode.STATIC);
+		Measurement server = results.get(SelectionMode.SERVER);
+		Measurement client = results.get(SelectionMode.CLIENT);
+
+		// Nur die serverseitige Variante sendet die Farbe mit jedem Eintrag
+		assertThat(client.renderPayload()).isEqualTo(staticMode.renderPayload());
+		assertThat(server.renderPayload()).isGreaterThan(client.renderPayload());
+
+		// Eine Änderung sendet ohne Hervorhebung nichts, im Browser nur ID und Zustand, serverseitig den ganzen Eintrag
+		assertThat(staticMode.togglePayload()).isZero();
+		assertThat(client.togglePayload()).isPositive().isLessThan(server.togglePayload());
+	}
+
+	@Test
+	void serverModeColorsSelectedEntriesOnly() {
+		FullCalendar calendar = FullCalendarBuilder.create().build();
+		calendar.setEntryProvider(EntryProvider.fromCallbacks(query -> Stream.empty(), id -> null));
+		SelectionRenderer renderer = SelectionMode.SERVER.createRenderer(calendar, db);
+
+		for (Exam exam : db.getAllExams()) {
+			Entry entry = renderer.render(db.getEntryTemplate(exam.getId()).newEntry(), exam.getId());
+			String expected = user.getIds().contains(exam.getId()) ? SelectionRenderer.SELECTED_COLOR : SelectionRenderer.DEFAULT_COLOR;
+			assertThat(entry.toJson().toJson()).contains(expected);
+		}
+	}
+
+	@Test
+	void staticAndClientModesLeaveTemplateEntriesUnchanged() {
+		for (SelectionMode mode : List.of(SelectionMode.STATIC, SelectionMode.CLIENT)) {
+			SelectionRenderer renderer = mode.createRenderer(FullCalendarBuilder.create().build(), db);
+			for (Exam exam : db.getAllExams()) {
+				EntryTemplate template = db.getEntryTemplate(exam.getId());
+				Entry entry = renderer.render(template.newEntry(), exam.getId());
+				assertThat(entry.toJson().toJson()).isEqualTo(template.newEntry().toJson().toJson());
+			}
+		}
+	}
+}